@@ -0,0 +1,114 @@
+package ee.ria.riha.storage.client;
+
+import ee.ria.riha.storage.util.Filterable;
+import ee.ria.riha.storage.util.Pageable;
+import ee.ria.riha.storage.util.PagedResponse;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking counterpart of {@link StorageClient}. Every operation is delegated to underlying {@link StorageClient}
+ * and run on executor, so several storage requests may be in flight from single thread. Failures complete returned
+ * futures exceptionally with the same exceptions thrown by {@link StorageClient}. When executor rejects the request,
+ * returned future completes exceptionally with {@link java.util.concurrent.RejectedExecutionException}.
+ *
+ * @see StorageExecutors
+ */
+public class AsyncStorageClient {
+
+    private final StorageClient storageClient;
+    private final Executor executor;
+
+    /**
+     * Creates async client that runs requests on executor of given {@link StorageClient}.
+     *
+     * @param storageClient delegate storage client
+     */
+    public AsyncStorageClient(StorageClient storageClient) {
+        this(storageClient, null);
+    }
+
+    /**
+     * Creates async client that runs requests on given executor.
+     *
+     * @param storageClient delegate storage client
+     * @param executor      executor or null to use executor of storage client
+     */
+    public AsyncStorageClient(StorageClient storageClient, Executor executor) {
+        Assert.notNull(storageClient, "storage client must be provided");
+        this.storageClient = storageClient;
+        this.executor = executor;
+    }
+
+    public StorageClient getStorageClient() {
+        return storageClient;
+    }
+
+    /**
+     * @see StorageClient#find(String, Pageable, Filterable, Class)
+     */
+    public <T> CompletableFuture<List<T>> find(String path, Pageable pageable, Filterable filterable,
+                                               Class<T> responseType) {
+        return Futures.supplyAsync(() -> storageClient.find(path, pageable, filterable, responseType),
+                getExecutor());
+    }
+
+    /**
+     * @see StorageClient#find(String, Filterable, Class)
+     */
+    public <T> CompletableFuture<List<T>> find(String path, Filterable filterable, Class<T> responseType) {
+        return find(path, null, filterable, responseType);
+    }
+
+    /**
+     * @see StorageClient#get(String, Long, Class)
+     */
+    public <T> CompletableFuture<T> get(String path, Long id, Class<T> responseType) {
+        return Futures.supplyAsync(() -> storageClient.get(path, id, responseType), getExecutor());
+    }
+
+    /**
+     * @see StorageClient#count(String, Filterable)
+     */
+    public CompletableFuture<Long> count(String path, Filterable filterable) {
+        return Futures.supplyAsync(() -> storageClient.count(path, filterable), getExecutor());
+    }
+
+    /**
+     * @see StorageClient#list(String, Pageable, Filterable, Class)
+     */
+    public <T> CompletableFuture<PagedResponse<T>> list(String path, Pageable pageable, Filterable filterable,
+                                                        Class<T> responseType) {
+        return Futures.supplyAsync(() -> storageClient.list(path, pageable, filterable, responseType),
+                getExecutor());
+    }
+
+    /**
+     * @see StorageClient#create(String, Object)
+     */
+    public CompletableFuture<List<Long>> create(String path, Object entity) {
+        return Futures.supplyAsync(() -> storageClient.create(path, entity), getExecutor());
+    }
+
+    /**
+     * @see StorageClient#update(String, Long, Object)
+     */
+    public CompletableFuture<Long> update(String path, Long id, Object entity) {
+        return Futures.supplyAsync(() -> storageClient.update(path, id, entity), getExecutor());
+    }
+
+    /**
+     * @see StorageClient#remove(String, Long)
+     */
+    public CompletableFuture<Long> remove(String path, Long id) {
+        return Futures.supplyAsync(() -> storageClient.remove(path, id), getExecutor());
+    }
+
+    private Executor getExecutor() {
+        return executor != null ? executor : storageClient.getExecutor();
+    }
+
+}
@@ -0,0 +1,215 @@
+package ee.ria.riha.storage.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Buffers entities and stores them in chunks with array payloads. Buffer is flushed when it reaches chunk size or
+ * when flush interval elapses since first buffered entity. Chunks are written on executor while new entities are
+ * buffered. At most configured number of chunks may be written at once, {@link #add(Object)} blocks when this limit is
+ * reached, which bounds memory held by the writer.</p>
+ * <p>Outcome of every chunk is reported to {@link ChunkListener} together with entities of that chunk. Writer must be
+ * closed in order to write remaining entities and wait for pending chunks.</p>
+ *
+ * @param <T> entity type
+ */
+@Slf4j
+public class BufferedStorageWriter<T> implements AutoCloseable {
+
+    private final StorageClient storageClient;
+    private final String path;
+    private final int chunkSize;
+    private final long flushIntervalMillis;
+    private final ChunkListener<? super T> listener;
+    private final Executor executor;
+
+    private final Semaphore chunkPermits;
+    private final int maxPendingChunks;
+    private final ScheduledExecutorService timer;
+
+    private List<T> buffer;
+    private boolean flushScheduled;
+    private boolean closed;
+
+    /**
+     * @param storageClient       storage client
+     * @param path                data resource path
+     * @param chunkSize           maximum number of entities in single request
+     * @param flushIntervalMillis maximum time entity stays in buffer, zero disables timed flushing
+     * @param maxPendingChunks    maximum number of chunks written at once
+     * @param listener            listener of chunk outcomes or null to log failures only
+     */
+    public BufferedStorageWriter(StorageClient storageClient, String path, int chunkSize, long flushIntervalMillis,
+                                 int maxPendingChunks, ChunkListener<? super T> listener) {
+        Assert.notNull(storageClient, "storage client must be provided");
+        Assert.hasText(path, "path must be specified");
+        Assert.isTrue(chunkSize > 0, "chunk size must be greater than zero");
+        Assert.isTrue(flushIntervalMillis >= 0, "flush interval must not be negative");
+        Assert.isTrue(maxPendingChunks > 0, "maximum number of pending chunks must be greater than zero");
+
+        this.storageClient = storageClient;
+        this.path = path;
+        this.chunkSize = chunkSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPendingChunks = maxPendingChunks;
+        this.listener = listener != null ? listener : new LoggingChunkListener<>(path);
+        this.executor = storageClient.getExecutor();
+        this.chunkPermits = new Semaphore(maxPendingChunks);
+        this.buffer = new ArrayList<>(chunkSize);
+
+        if (flushIntervalMillis > 0) {
+            ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "storage-client-writer-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduledExecutor.setRemoveOnCancelPolicy(true);
+            this.timer = scheduledExecutor;
+        } else {
+            this.timer = null;
+        }
+    }
+
+    /**
+     * Buffers entity. Writes buffer when it reaches chunk size. Blocks while maximum number of chunks is being written.
+     *
+     * @param entity stored entity
+     */
+    public void add(T entity) {
+        List<T> chunk = null;
+        synchronized (this) {
+            Assert.state(!closed, "writer is closed");
+            buffer.add(entity);
+
+            if (buffer.size() >= chunkSize) {
+                chunk = takeBuffer();
+            } else if (timer != null && !flushScheduled) {
+                flushScheduled = true;
+                timer.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (chunk != null) {
+            write(chunk);
+        }
+    }
+
+    /**
+     * Writes buffered entities without waiting for chunk to be stored.
+     */
+    public void flush() {
+        List<T> chunk;
+        synchronized (this) {
+            chunk = takeBuffer();
+        }
+
+        if (!chunk.isEmpty()) {
+            write(chunk);
+        }
+    }
+
+    private List<T> takeBuffer() {
+        List<T> chunk = buffer;
+        buffer = new ArrayList<>(chunkSize);
+        flushScheduled = false;
+        return chunk;
+    }
+
+    private void write(List<T> chunk) {
+        chunkPermits.acquireUninterruptibly();
+        try {
+            CompletableFuture.runAsync(() -> writeChunk(chunk), executor);
+        } catch (RuntimeException e) {
+            chunkPermits.release();
+            listener.onFailure(chunk, e);
+        }
+    }
+
+    private void writeChunk(List<T> chunk) {
+        try {
+            List<Long> ids;
+            try {
+                ids = storageClient.createChunk(path, chunk);
+            } catch (RuntimeException e) {
+                listener.onFailure(chunk, e);
+                return;
+            }
+            listener.onSuccess(chunk, ids);
+        } finally {
+            chunkPermits.release();
+        }
+    }
+
+    /**
+     * Writes remaining entities and waits until all chunks are stored.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        flush();
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+
+        chunkPermits.acquireUninterruptibly(maxPendingChunks);
+        chunkPermits.release(maxPendingChunks);
+    }
+
+    /**
+     * Receives outcome of written chunks. Called from executor threads.
+     *
+     * @param <T> entity type
+     */
+    public interface ChunkListener<T> {
+
+        /**
+         * Chunk was stored.
+         *
+         * @param entities entities of the chunk
+         * @param ids      ids of created entities in order of entities
+         */
+        void onSuccess(List<? extends T> entities, List<Long> ids);
+
+        /**
+         * Chunk could not be stored.
+         *
+         * @param entities  entities of the chunk
+         * @param exception failure cause
+         */
+        void onFailure(List<? extends T> entities, RuntimeException exception);
+    }
+
+    private static class LoggingChunkListener<T> implements ChunkListener<T> {
+        private final String path;
+
+        LoggingChunkListener(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public void onSuccess(List<? extends T> entities, List<Long> ids) {
+            log.debug("Stored {} entities in {}", entities.size(), path);
+        }
+
+        @Override
+        public void onFailure(List<? extends T> entities, RuntimeException exception) {
+            log.error("Could not store " + entities.size() + " entities in " + path, exception);
+        }
+    }
+
+}
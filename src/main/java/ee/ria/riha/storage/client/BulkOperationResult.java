@@ -0,0 +1,48 @@
+package ee.ria.riha.storage.client;
+
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregated outcome of bulk operation that was performed for every item separately.
+ *
+ * @param <K> item key type
+ * @param <V> item result type
+ */
+@ToString
+public class BulkOperationResult<K, V> {
+
+    private final Map<K, V> succeeded;
+    private final Map<K, RuntimeException> failed;
+
+    public BulkOperationResult(Map<K, V> succeeded, Map<K, RuntimeException> failed) {
+        this.succeeded = Collections.unmodifiableMap(new LinkedHashMap<>(succeeded));
+        this.failed = Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+    }
+
+    /**
+     * Results of succeeded items by their keys.
+     *
+     * @return results of succeeded items
+     */
+    public Map<K, V> getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Failure causes of failed items by their keys.
+     *
+     * @return failure causes
+     */
+    public Map<K, RuntimeException> getFailed() {
+        return failed;
+    }
+
+    public boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+
+}
@@ -0,0 +1,110 @@
+package ee.ria.riha.storage.client;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Performs operation for every item of a bulk with bounded parallelism.
+ */
+public class BulkOperations {
+
+    private BulkOperations() {
+    }
+
+    /**
+     * Performs operation for every key on executor. At most given number of operations run at once, so that requests
+     * of the bulk are pipelined over pooled connections without flooding storage. Failure of single operation does not
+     * stop the others. Method returns when all operations are complete.
+     * <p>When no operation can be started, calling thread runs queued operations itself, so bulk completes also on
+     * saturated executor and when called from a thread of the same executor. Operation failing with {@link Error}
+     * is not recorded as failed; the error is rethrown once all operations are complete.</p>
+     *
+     * @param keys        item keys, duplicates are processed once
+     * @param operation   operation performed for every key
+     * @param parallelism maximum number of operations running at once
+     * @param executor    executor of operations
+     * @return outcome of every operation in order of given keys
+     */
+    public static <K, V> BulkOperationResult<K, V> execute(Collection<K> keys,
+                                                           Function<? super K, ? extends V> operation,
+                                                           int parallelism, Executor executor) {
+        Assert.notNull(keys, "keys must be provided");
+        Assert.notNull(operation, "operation must be provided");
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than zero");
+        Assert.notNull(executor, "executor must be provided");
+
+        Set<K> uniqueKeys = new LinkedHashSet<>(keys);
+        Map<K, V> results = new ConcurrentHashMap<>();
+        Map<K, RuntimeException> failures = new ConcurrentHashMap<>();
+        Set<K> completed = ConcurrentHashMap.newKeySet();
+        Semaphore permits = new Semaphore(parallelism);
+        List<ForkedTask<Void>> tasks = new ArrayList<>(uniqueKeys.size());
+
+        int helped = 0;
+        for (K key : uniqueKeys) {
+            while (!permits.tryAcquire()) {
+                // Run operation that is still queued instead of waiting for executor to pick it up
+                while (helped < tasks.size() && !tasks.get(helped).tryRun()) {
+                    helped++;
+                }
+                if (helped == tasks.size()) {
+                    permits.acquireUninterruptibly();
+                    break;
+                }
+            }
+
+            tasks.add(ForkedTask.fork(() -> {
+                try {
+                    V result = operation.apply(key);
+                    if (result != null) {
+                        results.put(key, result);
+                    }
+                    completed.add(key);
+                } catch (RuntimeException e) {
+                    failures.put(key, e);
+                } finally {
+                    permits.release();
+                }
+                return null;
+            }, executor));
+        }
+
+        Error error = null;
+        for (ForkedTask<Void> task : tasks) {
+            try {
+                task.join();
+            } catch (Error e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+
+        Map<K, V> succeeded = new LinkedHashMap<>();
+        Map<K, RuntimeException> failed = new LinkedHashMap<>();
+        for (K key : uniqueKeys) {
+            if (failures.containsKey(key)) {
+                failed.put(key, failures.get(key));
+            } else if (completed.contains(key)) {
+                succeeded.put(key, results.get(key));
+            }
+        }
+
+        return new BulkOperationResult<>(succeeded, failed);
+    }
+
+}
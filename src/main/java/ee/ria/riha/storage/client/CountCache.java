@@ -0,0 +1,86 @@
+package ee.ria.riha.storage.client;
+
+import ee.ria.riha.storage.util.CanonicalFilter;
+import ee.ria.riha.storage.util.Filterable;
+import lombok.EqualsAndHashCode;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short living cache of {@link StorageClient#count(String, Filterable)} results. Results are cached by data resource
+ * path and {@link CanonicalFilter canonical form} of filter, so equivalent filters share cached count. Sort and field
+ * list do not affect count and are not part of the key. {@link StorageClient} invalidates all counts of the path when
+ * records are created, updated or removed through the same client.
+ *
+ * @see StorageClient#setCountCache(CountCache)
+ */
+public class CountCache {
+
+    private final StorageCache<Key, Long> cache;
+
+    /**
+     * @param maximumSize maximum number of cached counts
+     * @param timeToLive  time to live of cached count
+     * @param unit        time unit of time to live
+     */
+    public CountCache(int maximumSize, long timeToLive, TimeUnit unit) {
+        this.cache = new StorageCache<>(maximumSize, timeToLive, unit, key -> key.path);
+    }
+
+    Long get(String path, Filterable filterable) {
+        return cache.get(createKey(path, filterable));
+    }
+
+    /**
+     * Registers count that is about to be requested from storage.
+     *
+     * @return generation to be passed to {@link #completeLoad(String, Filterable, long, Long)}
+     */
+    long beginLoad(String path, Filterable filterable) {
+        return cache.beginLoad(createKey(path, filterable));
+    }
+
+    /**
+     * Caches loaded count unless counts of the path were invalidated while it was loaded. Must be called for every
+     * {@link #beginLoad(String, Filterable)}, with null count when load failed.
+     */
+    void completeLoad(String path, Filterable filterable, long generation, Long count) {
+        cache.completeLoad(createKey(path, filterable), generation, count);
+    }
+
+    /**
+     * Removes all cached counts of given paths.
+     *
+     * @param paths data resource paths
+     */
+    public void invalidate(Collection<String> paths) {
+        for (String path : paths) {
+            cache.invalidateGroup(path);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private static Key createKey(String path, Filterable filterable) {
+        return new Key(path, filterable != null ? CanonicalFilter.canonicalFilter(filterable.getFilter()) : "");
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final String path;
+        private final String filter;
+
+        Key(String path, String filter) {
+            this.path = path;
+            this.filter = filter;
+        }
+    }
+
+}
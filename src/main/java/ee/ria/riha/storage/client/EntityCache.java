@@ -0,0 +1,104 @@
+package ee.ria.riha.storage.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.EqualsAndHashCode;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache of single records retrieved with {@link StorageClient#get(String, Long, Class)}. Records are
+ * cached by data resource path and record id. {@link StorageClient} invalidates cached records when they are updated
+ * or removed through the same client.
+ * <p>Records are cached in serialized form, so every caller receives its own instance that may be modified.</p>
+ *
+ * @see StorageClient#setEntityCache(EntityCache)
+ */
+public class EntityCache {
+
+    private final StorageCache<Key, byte[]> cache;
+
+    /**
+     * @param maximumSize maximum number of cached records
+     * @param timeToLive  time to live of cached record
+     * @param unit        time unit of time to live
+     */
+    public EntityCache(int maximumSize, long timeToLive, TimeUnit unit) {
+        this.cache = new StorageCache<>(maximumSize, timeToLive, unit, key -> Arrays.asList(key.path, key.id));
+    }
+
+    <T> T get(String path, Long id, Class<T> type, ObjectMapper objectMapper) {
+        Key key = new Key(path, id, type);
+        byte[] json = cache.get(key);
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (IOException e) {
+            cache.invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Registers load of record before it is requested from storage.
+     *
+     * @return generation to be passed to {@link #completeLoad(String, Long, Class, long, Object, ObjectMapper)}
+     */
+    long beginLoad(String path, Long id, Class<?> type) {
+        return cache.beginLoad(new Key(path, id, type));
+    }
+
+    /**
+     * Caches loaded record unless it was invalidated while being loaded. Must be called for every {@link
+     * #beginLoad(String, Long, Class)}, with null record when load failed.
+     */
+    <T> void completeLoad(String path, Long id, Class<T> type, long generation, T entity,
+                          ObjectMapper objectMapper) {
+        byte[] json = null;
+        if (entity != null) {
+            try {
+                json = objectMapper.writeValueAsBytes(entity);
+            } catch (JsonProcessingException e) {
+                // Record that can not be serialized is not cached
+            }
+        }
+        cache.completeLoad(new Key(path, id, type), generation, json);
+    }
+
+    /**
+     * Removes cached record with given id regardless of its type.
+     *
+     * @param path data resource path
+     * @param id   record id
+     */
+    public void invalidate(String path, Long id) {
+        cache.invalidateGroup(Arrays.asList(path, id));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final String path;
+        private final Long id;
+        private final Class<?> type;
+
+        Key(String path, Long id, Class<?> type) {
+            this.path = path;
+            this.id = id;
+            this.type = type;
+        }
+    }
+
+}
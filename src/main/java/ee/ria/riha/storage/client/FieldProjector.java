@@ -0,0 +1,86 @@
+package ee.ria.riha.storage.client;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import ee.ria.riha.storage.util.ViewProperty;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derives storage fields definition from properties that Jackson binds when deserializing response type. Derived
+ * definitions are cached per class, separately for views and data resources.
+ */
+class FieldProjector {
+
+    private static final String NO_PROJECTION = "";
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, String> fieldsByType = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> viewFieldsByType = new ConcurrentHashMap<>();
+
+    FieldProjector(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Comma separated names of bound properties of response type. Types without fixed set of properties, e.g. {@link
+     * JsonNode}, String, maps or beans with any-setter, are not projected. Properties marked with {@link ViewProperty}
+     * are projected only for views.
+     *
+     * @param responseType response type
+     * @param view         true when records are requested from view
+     * @return fields definition or null when all fields must be retrieved
+     */
+    String fieldsOf(Class<?> responseType, boolean view) {
+        String fields = view
+                ? viewFieldsByType.computeIfAbsent(responseType, type -> deriveFields(type, true))
+                : fieldsByType.computeIfAbsent(responseType, type -> deriveFields(type, false));
+        return fields.isEmpty() ? null : fields;
+    }
+
+    private String deriveFields(Class<?> responseType, boolean view) {
+        if (!isBean(responseType)) {
+            return NO_PROJECTION;
+        }
+
+        BeanDescription description = objectMapper.getDeserializationConfig()
+                .introspect(objectMapper.constructType(responseType));
+        if (description.findAnySetterAccessor() != null) {
+            return NO_PROJECTION;
+        }
+
+        Set<String> names = new LinkedHashSet<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.couldDeserialize() && (view || !isViewProperty(property))) {
+                names.add(property.getName());
+            }
+        }
+        return String.join(",", names);
+    }
+
+    private static boolean isViewProperty(BeanPropertyDefinition property) {
+        for (AnnotatedMember member : new AnnotatedMember[]{property.getField(), property.getSetter(),
+                property.getGetter()}) {
+            if (member != null && member.hasAnnotation(ViewProperty.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBean(Class<?> type) {
+        return !type.isPrimitive()
+                && !type.isArray()
+                && !type.isEnum()
+                && !type.isInterface()
+                && !JsonNode.class.isAssignableFrom(type)
+                && !type.getName().startsWith("java.");
+    }
+
+}
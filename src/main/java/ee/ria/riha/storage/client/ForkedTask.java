@@ -0,0 +1,84 @@
+package ee.ria.riha.storage.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Subtask of a blocking storage operation run on executor. Joining thread runs the subtask itself when no executor
+ * thread has started it yet, e.g. while it is queued or after executor rejected it. Operation that waits for its
+ * subtasks therefore completes even when it runs on the same bounded executor and all its threads wait likewise.
+ */
+class ForkedTask<T> implements Runnable {
+
+    private final Supplier<T> supplier;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private ForkedTask(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Submits subtask to executor.
+     *
+     * @param supplier subtask
+     * @param executor executor of subtask
+     * @return forked subtask
+     */
+    static <T> ForkedTask<T> fork(Supplier<T> supplier, Executor executor) {
+        ForkedTask<T> task = new ForkedTask<>(supplier);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Subtask is run by joining thread
+        }
+        return task;
+    }
+
+    @Override
+    public void run() {
+        tryRun();
+    }
+
+    /**
+     * Runs subtask in current thread unless it has been started already.
+     *
+     * @return true if subtask was run by current thread
+     */
+    boolean tryRun() {
+        if (!claimed.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            future.complete(supplier.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return true;
+    }
+
+    /**
+     * Waits for subtask result running the subtask when it has not started yet.
+     *
+     * @return subtask result
+     * @see Futures#join(CompletableFuture)
+     */
+    T join() {
+        run();
+        return Futures.join(future);
+    }
+
+    /**
+     * Cancels subtask that has not started yet.
+     */
+    void cancel() {
+        if (claimed.compareAndSet(false, true)) {
+            future.cancel(false);
+        }
+    }
+
+}
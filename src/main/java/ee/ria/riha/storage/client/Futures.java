@@ -0,0 +1,72 @@
+package ee.ria.riha.storage.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for waiting on concurrently executed storage requests.
+ */
+public class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Runs supplier on executor like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but when executor
+     * rejects the task returned future is completed exceptionally with {@link RejectedExecutionException} instead of
+     * throwing it to the caller.
+     *
+     * @param supplier supplier of future result
+     * @param executor executor
+     * @return future of supplied result
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    /**
+     * Waits for future completion and returns its result. Unlike {@link CompletableFuture#join()}, rethrows original
+     * runtime exception (e.g. {@link StorageClientException}) instead of wrapping it into {@link CompletionException}.
+     *
+     * @param future awaited future
+     * @return future result
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Extracts original exception from {@link CompletionException}.
+     *
+     * @param throwable exception thrown by future
+     * @return original runtime exception or given exception wrapped into {@link CompletionException}
+     */
+    public static RuntimeException unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+}
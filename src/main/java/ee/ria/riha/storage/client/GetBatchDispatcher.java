@@ -0,0 +1,280 @@
+package ee.ria.riha.storage.client;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gathers single record requests that arrive within short time window and loads them with single bulk request per
+ * data resource path. Batch is dispatched when time window since its first request elapses or when batch reaches
+ * maximum size, whichever comes first. Every requester receives its own record.
+ * <p>Requests are batched per loader, so requests of different clients sharing the dispatcher are never loaded
+ * together. Requests submitted after {@link #close()} are loaded one by one without batching.</p>
+ * <p>Dispatched batch is loaded by executor or by the first requester waiting for it, whichever starts first, so
+ * requesters blocked on executor threads never wait for a batch queued behind them.</p>
+ *
+ * @see StorageClient#setGetBatchDispatcher(GetBatchDispatcher)
+ */
+public class GetBatchDispatcher implements AutoCloseable {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final Map<BatchKey, Batch> pendingBatches = new HashMap<>();
+    private boolean closed;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * @param window       time window of single batch
+     * @param unit         time unit of window
+     * @param maxBatchSize maximum number of requests in single batch
+     */
+    public GetBatchDispatcher(long window, TimeUnit unit, int maxBatchSize) {
+        Assert.isTrue(window > 0, "batch window must be greater than zero");
+        Assert.notNull(unit, "time unit must be provided");
+        Assert.isTrue(maxBatchSize > 0, "maximum batch size must be greater than zero");
+
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "storage-client-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Adds record request to pending batch of the same path, type and loader. Loader identifies the requesting
+     * client, therefore the same loader instance must be passed with every request of the client.
+     *
+     * @param path       data resource path
+     * @param idProperty name of record id property
+     * @param id         record id
+     * @param type       record type
+     * @param loader     bulk loader of records
+     * @param executor   executor that runs bulk loading
+     * @return future of record or null when record is not found
+     */
+    <T> CompletableFuture<T> submit(String path, String idProperty, Long id, Class<T> type, BatchLoader loader,
+                                    Executor executor) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        add(new BatchKey(path, idProperty, type, loader), id, future, executor);
+        return future.thenApply(type::cast);
+    }
+
+    /**
+     * Adds record request to pending batch like {@link #submit(String, String, Long, Class, BatchLoader, Executor)}
+     * and waits for the record. Requesting thread loads the batch itself once it is dispatched, unless executor has
+     * started loading it already.
+     *
+     * @return record or null when record is not found
+     * @see Futures#join(CompletableFuture)
+     */
+    <T> T fetch(String path, String idProperty, Long id, Class<T> type, BatchLoader loader, Executor executor) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Batch batch = add(new BatchKey(path, idProperty, type, loader), id, future, executor);
+
+        Futures.join(batch.dispatched);
+        batch.tryLoad();
+        return type.cast(Futures.join(future));
+    }
+
+    private Batch add(BatchKey key, Long id, CompletableFuture<Object> future, Executor executor) {
+        requestCount.incrementAndGet();
+        BatchLoader loader = key.loader;
+
+        Batch batch;
+        Batch fullBatch = null;
+        boolean direct = false;
+        synchronized (pendingBatches) {
+            batch = pendingBatches.get(key);
+            if (closed) {
+                batch = new Batch(key, loader, executor);
+                direct = true;
+            } else if (batch == null) {
+                Batch newBatch = new Batch(key, loader, executor);
+                newBatch.timeout = timer.schedule(() -> dispatchIfPending(newBatch), windowNanos,
+                        TimeUnit.NANOSECONDS);
+                pendingBatches.put(key, newBatch);
+                batch = newBatch;
+            }
+
+            batch.add(id, future);
+            if (direct) {
+                fullBatch = batch;
+            } else if (batch.size() >= maxBatchSize) {
+                pendingBatches.remove(key);
+                batch.timeout.cancel(false);
+                fullBatch = batch;
+            }
+        }
+
+        if (direct) {
+            // Timer is stopped, record is loaded by the requesting thread
+            batchCount.incrementAndGet();
+            fullBatch.dispatched.complete(null);
+            fullBatch.tryLoad();
+        } else if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+
+        return batch;
+    }
+
+    private void dispatchIfPending(Batch batch) {
+        synchronized (pendingBatches) {
+            if (pendingBatches.get(batch.key) != batch) {
+                return;
+            }
+            pendingBatches.remove(batch.key);
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        batchCount.incrementAndGet();
+        try {
+            batch.executor.execute(batch::tryLoad);
+        } catch (RuntimeException e) {
+            if (batch.claimed.compareAndSet(false, true)) {
+                batch.fail(e);
+            }
+        } finally {
+            batch.dispatched.complete(null);
+        }
+    }
+
+    /**
+     * Number of individual record requests submitted so far.
+     *
+     * @return request count
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Number of dispatched bulk requests so far.
+     *
+     * @return batch count
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Stops batch timer. Pending batches are dispatched immediately, later requests are not batched.
+     */
+    @Override
+    public void close() {
+        List<Batch> batches;
+        synchronized (pendingBatches) {
+            closed = true;
+            batches = new ArrayList<>(pendingBatches.values());
+            pendingBatches.clear();
+        }
+        timer.shutdownNow();
+
+        for (Batch batch : batches) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Loads records of single path by their ids.
+     */
+    @FunctionalInterface
+    interface BatchLoader {
+        Map<Long, ?> load(String path, String idProperty, Collection<Long> ids, Class<?> type);
+    }
+
+    @EqualsAndHashCode
+    private static class BatchKey {
+        private final String path;
+        private final String idProperty;
+        private final Class<?> type;
+        private final BatchLoader loader;
+
+        BatchKey(String path, String idProperty, Class<?> type, BatchLoader loader) {
+            this.path = path;
+            this.idProperty = idProperty;
+            this.type = type;
+            this.loader = loader;
+        }
+    }
+
+    private static class Batch {
+        private final BatchKey key;
+        private final BatchLoader loader;
+        private final Executor executor;
+        private final Map<Long, List<CompletableFuture<Object>>> requests = new LinkedHashMap<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Void> dispatched = new CompletableFuture<>();
+        private int size;
+        private ScheduledFuture<?> timeout;
+
+        Batch(BatchKey key, BatchLoader loader, Executor executor) {
+            this.key = key;
+            this.loader = loader;
+            this.executor = executor;
+        }
+
+        void add(Long id, CompletableFuture<Object> future) {
+            requests.computeIfAbsent(id, k -> new ArrayList<>(1)).add(future);
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Loads batch in current thread unless it has been started already.
+         */
+        void tryLoad() {
+            if (claimed.compareAndSet(false, true)) {
+                load();
+            }
+        }
+
+        private void load() {
+            Map<Long, ?> records;
+            try {
+                records = loader.load(key.path, key.idProperty, requests.keySet(), key.type);
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            } catch (Error e) {
+                fail(e);
+                throw e;
+            }
+
+            requests.forEach((id, futures) -> {
+                Object record = records.get(id);
+                futures.forEach(future -> future.complete(record));
+            });
+        }
+
+        void fail(Throwable e) {
+            requests.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package ee.ria.riha.storage.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates HTTP transport for RIHA-Storage communication with pooled keep-alive connections, connection limits, idle
+ * connection eviction and timeouts defined by {@link HttpTransportSettings}.
+ */
+public class HttpTransportFactory {
+
+    private HttpTransportFactory() {
+    }
+
+    /**
+     * Creates {@link RestTemplate} configured for RIHA-Storage communication and backed by pooled HTTP transport.
+     * Connection pool is owned by the caller and is released by destroying request factory of returned template.
+     *
+     * @param settings transport settings
+     * @return configured rest template
+     */
+    public static RestTemplate createRestTemplate(HttpTransportSettings settings) {
+        return createRestTemplate(createRequestFactory(settings));
+    }
+
+    /**
+     * Creates {@link RestTemplate} configured for RIHA-Storage communication and backed by given request factory.
+     *
+     * @param requestFactory HTTP request factory
+     * @return configured rest template
+     */
+    public static RestTemplate createRestTemplate(ClientHttpRequestFactory requestFactory) {
+        RestTemplate restTemplate = requestFactory != null ? new RestTemplate(requestFactory) : new RestTemplate();
+        restTemplate.getMessageConverters().add(new MappingJackson2HttpMessageConverter());
+        restTemplate.setErrorHandler(new StorageResponseErrorHandler());
+        return restTemplate;
+    }
+
+    /**
+     * Creates request factory backed by Apache HttpClient with pooled persistent connections. Returned factory owns
+     * connection pool and idle connection evictor thread which are released by {@link
+     * HttpComponentsClientHttpRequestFactory#destroy()}.
+     *
+     * @param settings transport settings
+     * @return pooled request factory
+     */
+    public static HttpComponentsClientHttpRequestFactory createRequestFactory(HttpTransportSettings settings) {
+        Assert.notNull(settings, "transport settings must be provided");
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(settings.getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(settings.getValidateAfterInactivity());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(settings.getConnectTimeout())
+                .setSocketTimeout(settings.getReadTimeout())
+                .setConnectionRequestTimeout(settings.getConnectionRequestTimeout())
+                .build();
+
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections();
+
+        if (settings.getMaxIdleTime() > 0) {
+            httpClientBuilder.evictIdleConnections(settings.getMaxIdleTime(), TimeUnit.MILLISECONDS);
+        }
+
+        CloseableHttpClient httpClient = httpClientBuilder.build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+}
@@ -0,0 +1,53 @@
+package ee.ria.riha.storage.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Settings of pooled HTTP transport used for RIHA-Storage communication. All timeouts are in milliseconds, zero means
+ * infinite timeout.
+ *
+ * @see HttpTransportFactory
+ */
+@Getter
+@Setter
+@ToString
+public class HttpTransportSettings {
+
+    /**
+     * Maximum number of pooled connections in total
+     */
+    private int maxConnectionsTotal = 50;
+
+    /**
+     * Maximum number of pooled connections per route (host and port)
+     */
+    private int maxConnectionsPerRoute = 20;
+
+    /**
+     * Time to establish connection with RIHA-Storage
+     */
+    private int connectTimeout = 5000;
+
+    /**
+     * Maximum time of inactivity between two consecutive data packets while reading response
+     */
+    private int readTimeout = 30000;
+
+    /**
+     * Time to wait for a free connection from the pool
+     */
+    private int connectionRequestTimeout = 5000;
+
+    /**
+     * Idle connections are closed by background evictor after this period
+     */
+    private int maxIdleTime = 30000;
+
+    /**
+     * Pooled connections that were idle longer than this period are validated before reuse
+     */
+    private int validateAfterInactivity = 2000;
+
+}
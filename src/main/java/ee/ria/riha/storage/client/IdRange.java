@@ -0,0 +1,81 @@
+package ee.ria.riha.storage.client;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Closed range of record ids together with ids requested from that range. Used to fetch many records by id with
+ * range filters since RIHA-Storage filter grammar has no set membership operation.
+ */
+class IdRange {
+
+    private final List<Long> ids;
+
+    private IdRange(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    long getFirst() {
+        return ids.get(0);
+    }
+
+    long getLast() {
+        return ids.get(ids.size() - 1);
+    }
+
+    /**
+     * Number of records that may exist in this range.
+     *
+     * @return range span
+     */
+    long getSpan() {
+        return getLast() - getFirst() + 1;
+    }
+
+    List<Long> getIds() {
+        return ids;
+    }
+
+    /**
+     * Splits ids into ordered ranges. Every range holds at most given number of ids and spans at most given number of
+     * consecutive ids, so sparse ids do not cause large amount of unneeded records to be fetched.
+     *
+     * @param ids         split ids, duplicates and nulls are ignored
+     * @param maxIdCount  maximum number of ids in single range
+     * @param maxSpan     maximum span of single range
+     * @return list of ranges
+     */
+    static List<IdRange> split(Collection<Long> ids, int maxIdCount, long maxSpan) {
+        Assert.isTrue(maxIdCount > 0, "maximum id count must be greater than zero");
+        Assert.isTrue(maxSpan >= maxIdCount, "maximum span must not be less than maximum id count");
+
+        TreeSet<Long> sortedIds = new TreeSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                sortedIds.add(id);
+            }
+        }
+
+        List<IdRange> ranges = new ArrayList<>();
+        List<Long> rangeIds = new ArrayList<>();
+        for (Long id : sortedIds) {
+            if (!rangeIds.isEmpty()
+                    && (rangeIds.size() >= maxIdCount || id - rangeIds.get(0) + 1 > maxSpan)) {
+                ranges.add(new IdRange(rangeIds));
+                rangeIds = new ArrayList<>();
+            }
+            rangeIds.add(id);
+        }
+
+        if (!rangeIds.isEmpty()) {
+            ranges.add(new IdRange(rangeIds));
+        }
+
+        return ranges;
+    }
+
+}
@@ -0,0 +1,163 @@
+package ee.ria.riha.storage.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import ee.ria.riha.storage.util.FilterRequest;
+import ee.ria.riha.storage.util.Filterable;
+import ee.ria.riha.storage.util.PageRequest;
+import ee.ria.riha.storage.util.SeekResponse;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Single run of partitioned scan. Id bounds of matching records are found first, then id range between them is split
+ * into partitions that are scanned concurrently with keyset pagination.
+ *
+ * @param <T> record type
+ */
+class PartitionedScan<T> {
+
+    private final StorageClient storageClient;
+    private final String path;
+    private final String idProperty;
+    private final Filterable filterable;
+    private final ScanSettings settings;
+    private final Class<T> responseType;
+    private final Consumer<? super T> consumer;
+
+    private final AtomicInteger completedPartitionCount = new AtomicInteger();
+    private final AtomicLong pageCount = new AtomicLong();
+    private final AtomicLong recordCount = new AtomicLong();
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private long startNanos;
+    private int partitionCount;
+
+    PartitionedScan(StorageClient storageClient, String path, String idProperty, Filterable filterable,
+                    ScanSettings settings, Class<T> responseType, Consumer<? super T> consumer) {
+        this.storageClient = storageClient;
+        this.path = path;
+        this.idProperty = idProperty;
+        this.filterable = filterable;
+        this.settings = settings;
+        this.responseType = responseType;
+        this.consumer = consumer;
+    }
+
+    ScanProgress run() {
+        startNanos = System.nanoTime();
+
+        Long minId = findBoundaryId(idProperty);
+        Long maxId = minId != null ? findBoundaryId("-" + idProperty) : null;
+        if (minId == null || maxId == null) {
+            return snapshot();
+        }
+
+        List<long[]> partitions = split(minId, maxId, settings.getPartitions());
+        partitionCount = partitions.size();
+
+        Executor executor = settings.getExecutor() != null ? settings.getExecutor() : storageClient.getExecutor();
+        List<ForkedTask<Void>> workers = new ArrayList<>(partitions.size());
+        for (long[] partition : partitions) {
+            workers.add(ForkedTask.fork(() -> {
+                scanPartition(partition[0], partition[1]);
+                return null;
+            }, executor));
+        }
+
+        RuntimeException failure = null;
+        for (ForkedTask<Void> worker : workers) {
+            try {
+                worker.join();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        return snapshot();
+    }
+
+    private Long findBoundaryId(String sort) {
+        List<JsonNode> rows = storageClient.find(path, new PageRequest(0, 1),
+                                                 new FilterRequest(getFilter(), sort, idProperty), JsonNode.class);
+        if (rows == null || rows.isEmpty()) {
+            return null;
+        }
+
+        JsonNode id = rows.get(0).get(idProperty);
+        if (id == null || !id.canConvertToLong()) {
+            throw new IllegalStateException("Record has no numeric value of id property " + idProperty);
+        }
+        return id.asLong();
+    }
+
+    static List<long[]> split(long minId, long maxId, int partitions) {
+        long idCount = maxId - minId + 1;
+        long span = (idCount + partitions - 1) / partitions;
+
+        List<long[]> ranges = new ArrayList<>(partitions);
+        for (long first = minId; first <= maxId; first += span) {
+            ranges.add(new long[]{first, Math.min(first + span - 1, maxId)});
+        }
+        return ranges;
+    }
+
+    private void scanPartition(long firstId, long lastId) {
+        FilterRequest partitionFilter = new FilterRequest(getFilter(), null,
+                                                          filterable != null ? filterable.getFields() : null);
+        partitionFilter.addFilter(idProperty + ",>=," + firstId);
+        partitionFilter.addFilter(idProperty + ",<=," + lastId);
+
+        try {
+            String continuationToken = null;
+            do {
+                if (failed.get()) {
+                    return;
+                }
+
+                SeekResponse<T> page = storageClient.seek(path, idProperty, partitionFilter, continuationToken,
+                                                          settings.getPageSize(), responseType);
+                page.getContent().forEach(consumer);
+                pageCount.incrementAndGet();
+                recordCount.addAndGet(page.getContent().size());
+                continuationToken = page.getContinuationToken();
+
+                if (continuationToken == null) {
+                    completedPartitionCount.incrementAndGet();
+                }
+                reportProgress();
+            } while (continuationToken != null);
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    private String getFilter() {
+        return filterable != null && StringUtils.hasText(filterable.getFilter()) ? filterable.getFilter() : null;
+    }
+
+    private void reportProgress() {
+        ScanProgressListener listener = settings.getProgressListener();
+        if (listener != null) {
+            listener.onProgress(snapshot());
+        }
+    }
+
+    private ScanProgress snapshot() {
+        return new ScanProgress(partitionCount, completedPartitionCount.get(), pageCount.get(), recordCount.get(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+}
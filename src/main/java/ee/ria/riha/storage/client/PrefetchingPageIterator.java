@@ -0,0 +1,117 @@
+package ee.ria.riha.storage.client;
+
+import ee.ria.riha.storage.util.PageRequest;
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Iterates over all records page by page. Pages are requested on demand and up to configured number of following pages
+ * are fetched in background while current page is consumed. Iteration stops at first page that is smaller than page
+ * size.
+ */
+class PrefetchingPageIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final Function<PageRequest, List<T>> pageLoader;
+    private final Executor executor;
+    private final int pageSize;
+    private final int prefetchPages;
+
+    private final Deque<ForkedTask<List<T>>> inFlightPages = new ArrayDeque<>();
+    private Iterator<T> currentPage = Collections.emptyIterator();
+    private int nextPageNumber;
+    private boolean lastPageRequested;
+
+    /**
+     * @param pageLoader    loads single page
+     * @param executor      executor for background page loading
+     * @param pageSize      number of records per page
+     * @param prefetchPages maximum number of pages loaded in background, zero disables prefetching
+     */
+    PrefetchingPageIterator(Function<PageRequest, List<T>> pageLoader, Executor executor, int pageSize,
+                            int prefetchPages) {
+        Assert.notNull(pageLoader, "page loader must be provided");
+        Assert.notNull(executor, "executor must be provided");
+        Assert.isTrue(pageSize > 0, "page size must be greater than zero");
+        Assert.isTrue(prefetchPages >= 0, "number of prefetched pages must not be negative");
+
+        this.pageLoader = pageLoader;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            if (lastPageRequested && inFlightPages.isEmpty()) {
+                return false;
+            }
+
+            List<T> page = takeNextPage();
+            if (page.size() < pageSize) {
+                close();
+            }
+            currentPage = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    private List<T> takeNextPage() {
+        List<T> page;
+        if (inFlightPages.isEmpty()) {
+            page = loadPage(nextPageNumber++);
+        } else {
+            page = inFlightPages.poll().join();
+        }
+
+        if (page == null) {
+            page = Collections.emptyList();
+        }
+
+        if (page.size() == pageSize) {
+            prefetch();
+        }
+
+        return page;
+    }
+
+    private void prefetch() {
+        while (!lastPageRequested && inFlightPages.size() < prefetchPages) {
+            int pageNumber = nextPageNumber++;
+            inFlightPages.add(ForkedTask.fork(() -> loadPage(pageNumber), executor));
+        }
+    }
+
+    private List<T> loadPage(int pageNumber) {
+        return pageLoader.apply(new PageRequest(pageNumber, pageSize));
+    }
+
+    /**
+     * Stops iteration and cancels pages that are being loaded in background.
+     */
+    @Override
+    public void close() {
+        lastPageRequested = true;
+        for (ForkedTask<List<T>> page : inFlightPages) {
+            page.cancel();
+        }
+        inFlightPages.clear();
+    }
+
+}
@@ -0,0 +1,41 @@
+package ee.ria.riha.storage.client;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of partitioned scan progress.
+ */
+@Getter
+@ToString
+public class ScanProgress {
+
+    private final int partitionCount;
+    private final int completedPartitionCount;
+    private final long pageCount;
+    private final long recordCount;
+    private final long elapsedMillis;
+
+    public ScanProgress(int partitionCount, int completedPartitionCount, long pageCount, long recordCount,
+                        long elapsedMillis) {
+        this.partitionCount = partitionCount;
+        this.completedPartitionCount = completedPartitionCount;
+        this.pageCount = pageCount;
+        this.recordCount = recordCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isComplete() {
+        return completedPartitionCount == partitionCount;
+    }
+
+    /**
+     * Average throughput since the start of the scan.
+     *
+     * @return number of records per second
+     */
+    public double getRecordsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : recordCount * 1000.0 / elapsedMillis;
+    }
+
+}
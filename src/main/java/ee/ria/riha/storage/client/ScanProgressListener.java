@@ -0,0 +1,14 @@
+package ee.ria.riha.storage.client;
+
+/**
+ * Receives progress of partitioned scan. Called from partition worker threads after every fetched page, so
+ * implementations must be thread safe.
+ */
+public interface ScanProgressListener {
+
+    /**
+     * @param progress snapshot of scan progress
+     */
+    void onProgress(ScanProgress progress);
+
+}
@@ -0,0 +1,38 @@
+package ee.ria.riha.storage.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of partitioned scan performed with {@link StorageClient#scan}.
+ */
+@Getter
+@Setter
+@ToString
+public class ScanSettings {
+
+    /**
+     * Number of id ranges the table is split into
+     */
+    private int partitions = 8;
+
+    /**
+     * Number of records fetched with single request
+     */
+    private int pageSize = 500;
+
+    /**
+     * Executor of partition workers, storage client executor is used when not set. Number of partitions scanned at once
+     * is limited by this executor.
+     */
+    private Executor executor;
+
+    /**
+     * Listener of scan progress, may be null
+     */
+    private ScanProgressListener progressListener;
+
+}
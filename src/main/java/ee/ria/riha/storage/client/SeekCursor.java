@@ -0,0 +1,61 @@
+package ee.ria.riha.storage.client;
+
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of keyset pagination: sort key and its last seen value. Encoded as URL safe continuation token so that
+ * clients treat it as opaque.
+ */
+class SeekCursor {
+
+    private static final char SEPARATOR = ',';
+
+    private final String sortKey;
+    private final String lastValue;
+
+    SeekCursor(String sortKey, String lastValue) {
+        Assert.hasText(sortKey, "sort key must be specified");
+        Assert.notNull(lastValue, "last value must be provided");
+        Assert.isTrue(lastValue.indexOf(SEPARATOR) < 0, "keyset value must not contain comma");
+
+        this.sortKey = sortKey;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Decodes continuation token issued for the same sort key.
+     *
+     * @param token   continuation token
+     * @param sortKey expected sort key
+     * @return decoded cursor
+     * @throws IllegalArgumentException when token is malformed or was issued for different sort key
+     */
+    static SeekCursor parse(String token, String sortKey) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed continuation token", e);
+        }
+
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0 || !decoded.substring(0, separator).equals(sortKey)) {
+            throw new IllegalArgumentException("Continuation token was not issued for sort key " + sortKey);
+        }
+
+        return new SeekCursor(sortKey, decoded.substring(separator + 1));
+    }
+
+    String getLastValue() {
+        return lastValue;
+    }
+
+    String toToken() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sortKey + SEPARATOR + lastValue).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
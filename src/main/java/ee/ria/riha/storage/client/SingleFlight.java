@@ -0,0 +1,49 @@
+package ee.ria.riha.storage.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent identical calls. First caller with given key performs the call while callers arriving with
+ * the same key before it completes wait and receive the same result or exception.
+ *
+ * @param <K> call key type
+ * @param <V> call result type
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Performs call or joins identical call that is already in flight.
+     *
+     * @param key  call key
+     * @param call performed call
+     * @return call result
+     */
+    V execute(K key, Supplier<? extends V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existingFlight = calls.putIfAbsent(key, flight);
+        if (existingFlight != null) {
+            return Futures.join(existingFlight);
+        }
+
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, flight);
+        }
+    }
+
+    int inFlightCount() {
+        return calls.size();
+    }
+
+}
@@ -0,0 +1,265 @@
+package ee.ria.riha.storage.client;
+
+import org.springframework.util.Assert;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Size bounded in-memory cache with least recently used eviction policy and fixed time to live of entries. Keeps hit,
+ * miss and eviction counters for cache sizing.
+ * <p>Keys are indexed by invalidation group, e.g. data resource path, so that all entries of a group are invalidated
+ * without scanning the cache. Value loaded while its group is invalidated is not stored, see {@link
+ * #beginLoad(Object)}.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class StorageCache<K, V> {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final Function<? super K, ?> groupFunction;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Object, Group<K>> groups = new HashMap<>();
+
+    /**
+     * Creates cache in which every key is its own invalidation group.
+     *
+     * @param maximumSize maximum number of cached entries
+     * @param timeToLive  time to live of cached entry
+     * @param unit        time unit of time to live
+     */
+    public StorageCache(int maximumSize, long timeToLive, TimeUnit unit) {
+        this(maximumSize, timeToLive, unit, key -> key);
+    }
+
+    /**
+     * @param maximumSize   maximum number of cached entries
+     * @param timeToLive    time to live of cached entry
+     * @param unit          time unit of time to live
+     * @param groupFunction maps key to its invalidation group
+     */
+    public StorageCache(int maximumSize, long timeToLive, TimeUnit unit, Function<? super K, ?> groupFunction) {
+        Assert.isTrue(maximumSize > 0, "maximum size must be greater than zero");
+        Assert.isTrue(timeToLive > 0, "time to live must be greater than zero");
+        Assert.notNull(unit, "time unit must be provided");
+        Assert.notNull(groupFunction, "group function must be provided");
+
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.groupFunction = groupFunction;
+    }
+
+    /**
+     * Returns cached value that is not expired.
+     *
+     * @param key cache key
+     * @return cached value or null if absent or expired
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                remove(key);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+
+            hitCount.incrementAndGet();
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Assert.notNull(value, "cached value must not be null");
+
+        synchronized (entries) {
+            store(key, value);
+        }
+    }
+
+    /**
+     * Registers load of value that is about to be fetched from storage. Every call must be followed by {@link
+     * #completeLoad(Object, long, Object)} with returned generation, also when the load fails.
+     *
+     * @param key cache key
+     * @return generation of key group at the start of the load
+     */
+    public long beginLoad(K key) {
+        synchronized (entries) {
+            Group<K> group = groups.computeIfAbsent(groupFunction.apply(key), k -> new Group<>());
+            group.pendingLoads++;
+            return group.generation;
+        }
+    }
+
+    /**
+     * Stores loaded value unless key group was invalidated since the load began, in which case the value may already
+     * be stale.
+     *
+     * @param key        cache key
+     * @param generation generation returned by {@link #beginLoad(Object)}
+     * @param value      loaded value or null when nothing was loaded
+     */
+    public void completeLoad(K key, long generation, V value) {
+        synchronized (entries) {
+            Object groupKey = groupFunction.apply(key);
+            Group<K> group = groups.get(groupKey);
+            Assert.state(group != null && group.pendingLoads > 0, "load was not begun");
+
+            group.pendingLoads--;
+            if (value != null && group.generation == generation) {
+                store(key, value);
+            } else {
+                removeIfUnused(groupKey, group);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Removes all entries of given invalidation group and discards values of the group that are being loaded.
+     *
+     * @param groupKey invalidation group
+     */
+    public void invalidateGroup(Object groupKey) {
+        synchronized (entries) {
+            Group<K> group = groups.get(groupKey);
+            if (group == null) {
+                return;
+            }
+
+            group.generation++;
+            for (K key : group.keys) {
+                entries.remove(key);
+            }
+            group.keys.clear();
+            removeIfUnused(groupKey, group);
+        }
+    }
+
+    /**
+     * Removes all entries with keys matching given predicate. Scans the whole cache, prefer {@link
+     * #invalidateGroup(Object)} where possible.
+     *
+     * @param keyPredicate predicate of removed keys
+     */
+    public void invalidateIf(Predicate<? super K> keyPredicate) {
+        synchronized (entries) {
+            Iterator<K> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                K key = iterator.next();
+                if (keyPredicate.test(key)) {
+                    iterator.remove();
+                    removeFromGroup(key);
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            Iterator<Group<K>> iterator = groups.values().iterator();
+            while (iterator.hasNext()) {
+                Group<K> group = iterator.next();
+                group.generation++;
+                group.keys.clear();
+                if (group.pendingLoads == 0) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Snapshot of cache counters.
+     *
+     * @return cache statistics
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.get(), missCount.get(), evictionCount.get(), size());
+    }
+
+    private void store(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + timeToLiveNanos));
+        groups.computeIfAbsent(groupFunction.apply(key), k -> new Group<>()).keys.add(key);
+
+        if (entries.size() > maximumSize) {
+            remove(entries.keySet().iterator().next());
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private void remove(K key) {
+        if (entries.remove(key) != null) {
+            removeFromGroup(key);
+        }
+    }
+
+    private void removeFromGroup(K key) {
+        Object groupKey = groupFunction.apply(key);
+        Group<K> group = groups.get(groupKey);
+        if (group != null) {
+            group.keys.remove(key);
+            removeIfUnused(groupKey, group);
+        }
+    }
+
+    private void removeIfUnused(Object groupKey, Group<K> group) {
+        if (group.keys.isEmpty() && group.pendingLoads == 0) {
+            groups.remove(groupKey);
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private static class Group<K> {
+        private final Set<K> keys = new HashSet<>();
+        private long generation;
+        private int pendingLoads;
+    }
+
+}
@@ -1,49 +1,181 @@
 package ee.ria.riha.storage.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import ee.ria.riha.storage.domain.model.Comment;
 import ee.ria.riha.storage.util.*;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static ee.ria.riha.storage.client.OperationType.*;
+import static ee.ria.riha.storage.client.StorageErrorCode.INPUT_NO_OBJECT_FOUND_WITH_GIVEN_ID;
 import static ee.ria.riha.storage.util.StorageRepositoryUriHelper.createRequestForPathAndOperation;
 
 /**
- * Makes requests to RIHA-Storage for data.
+ * Makes requests to RIHA-Storage for data. Client created with {@link HttpTransportSettings} owns its pooled HTTP
+ * transport and must be {@link #close() closed} when no longer used.
  *
  * @author Valentin Suhnjov
  */
-public class StorageClient {
+public class StorageClient implements Closeable {
 
     private static final String MESSAGE_PATH_MUST_BE_SPECIFIED = "path must be specified";
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 500;
+    private static final int DEFAULT_STREAM_PREFETCH_PAGES = 1;
+    private static final int BULK_CHUNK_SIZE = 100;
+    private static final int BULK_CHUNK_MAX_SPAN_FACTOR = 4;
+    private static final int DEFAULT_BULK_PARALLELISM = 4;
 
     private RestTemplate restTemplate;
     private String baseUrl;
+    private ObjectMapper objectMapper;
+    private boolean ownsObjectMapper;
+    private Executor executor = StorageExecutors.defaultExecutor();
+    private boolean concurrentListing;
+    private int bulkParallelism = DEFAULT_BULK_PARALLELISM;
+    private volatile EntityCache entityCache;
+    private volatile CountCache countCache;
+    private boolean requestCoalescing;
+    private boolean fieldProjection;
+    private final FieldProjector fieldProjector;
+    private volatile StringPool stringPool;
+    private final SingleFlight<List<Object>, Object> inFlightReads = new SingleFlight<>();
+    private volatile GetBatchDispatcher getBatchDispatcher;
+    private final GetBatchDispatcher.BatchLoader batchLoader = this::fetchByIds;
+    private final Map<String, String> idPropertiesByPath = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> viewsByPath = new ConcurrentHashMap<>();
+    private final AsyncStorageClient asyncStorageClient = new AsyncStorageClient(this);
+    private final CloseableHttpClient ownedHttpClient;
 
     public StorageClient(String baseUrl) {
+        this(baseUrl, HttpTransportFactory.createRestTemplate((ClientHttpRequestFactory) null));
+    }
+
+    /**
+     * Creates client that communicates with RIHA-Storage over pooled HTTP transport.
+     *
+     * @param baseUrl           RIHA-Storage API URL
+     * @param transportSettings pooled transport settings
+     * @see HttpTransportFactory
+     */
+    public StorageClient(String baseUrl, HttpTransportSettings transportSettings) {
+        this(baseUrl, HttpTransportFactory.createRequestFactory(transportSettings));
+    }
+
+    private StorageClient(String baseUrl, HttpComponentsClientHttpRequestFactory ownedRequestFactory) {
+        this(baseUrl, HttpTransportFactory.createRestTemplate(ownedRequestFactory),
+             (CloseableHttpClient) ownedRequestFactory.getHttpClient());
+    }
+
+    /**
+     * Creates client that communicates with RIHA-Storage using given {@link RestTemplate}. Same rest template may be
+     * shared with {@link ee.ria.riha.storage.domain.FileRepository}.
+     *
+     * @param baseUrl      RIHA-Storage API URL
+     * @param restTemplate configured rest template
+     * @see HttpTransportFactory#createRestTemplate(HttpTransportSettings)
+     */
+    public StorageClient(String baseUrl, RestTemplate restTemplate) {
+        this(baseUrl, restTemplate, null);
+    }
+
+    private StorageClient(String baseUrl, RestTemplate restTemplate, CloseableHttpClient ownedHttpClient) {
         Assert.notNull(baseUrl, "baseUrl must be provided");
+        Assert.notNull(restTemplate, "restTemplate must be provided");
         this.baseUrl = baseUrl;
+        this.restTemplate = restTemplate;
+        this.ownedHttpClient = ownedHttpClient;
+        this.objectMapper = resolveObjectMapper(restTemplate);
+        this.fieldProjector = new FieldProjector(objectMapper);
+    }
+
+    private static ObjectMapper resolveObjectMapper(RestTemplate restTemplate) {
+        for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+            if (converter instanceof MappingJackson2HttpMessageConverter) {
+                return ((MappingJackson2HttpMessageConverter) converter).getObjectMapper();
+            }
+        }
 
-        createRestTemplate();
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
+        restTemplate.getMessageConverters().add(converter);
+        return converter.getObjectMapper();
     }
 
-    private void createRestTemplate() {
-        this.restTemplate = new RestTemplate();
-        this.restTemplate.getMessageConverters().add(new MappingJackson2HttpMessageConverter());
-        this.restTemplate.setErrorHandler(new StorageResponseErrorHandler());
+    /**
+     * Switches client to its own copy of object mapper. Shared rest template is left intact, client continues with
+     * private rest template that converts with the copy and reuses request factory, interceptors, error handler and
+     * URI template handler of the shared one.
+     */
+    private void useObjectMapperCopy() {
+        ObjectMapper copy = objectMapper.copy();
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+            if (converter instanceof MappingJackson2HttpMessageConverter
+                    && ((MappingJackson2HttpMessageConverter) converter).getObjectMapper() == objectMapper) {
+                MappingJackson2HttpMessageConverter ownConverter = new MappingJackson2HttpMessageConverter(copy);
+                ownConverter.setSupportedMediaTypes(converter.getSupportedMediaTypes());
+                converters.add(ownConverter);
+            } else {
+                converters.add(converter);
+            }
+        }
+
+        RestTemplate ownRestTemplate = new RestTemplate(converters);
+        ownRestTemplate.setRequestFactory(restTemplate.getRequestFactory());
+        ownRestTemplate.setErrorHandler(restTemplate.getErrorHandler());
+        ownRestTemplate.setUriTemplateHandler(restTemplate.getUriTemplateHandler());
+
+        this.restTemplate = ownRestTemplate;
+        this.objectMapper = copy;
+        this.ownsObjectMapper = true;
     }
 
     public RestTemplate getRestTemplate() {
@@ -54,6 +186,201 @@ public class StorageClient {
         return baseUrl;
     }
 
+    /**
+     * {@link ObjectMapper} used by rest template for JSON conversion.
+     *
+     * @return object mapper
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets executor used for concurrent storage requests.
+     *
+     * @param executor executor
+     * @see StorageExecutors
+     */
+    public void setExecutor(Executor executor) {
+        Assert.notNull(executor, "executor must be provided");
+        this.executor = executor;
+    }
+
+    public boolean isConcurrentListing() {
+        return concurrentListing;
+    }
+
+    /**
+     * Enables concurrent listing mode in which {@link #list(String, Pageable, Filterable, Class)} issues count and find
+     * requests in parallel. Listing latency then becomes the larger of the two instead of their sum at the cost of
+     * wasted find request when nothing matches the filter.
+     *
+     * @param concurrentListing true to run count and find requests in parallel
+     */
+    public void setConcurrentListing(boolean concurrentListing) {
+        this.concurrentListing = concurrentListing;
+    }
+
+    public int getBulkParallelism() {
+        return bulkParallelism;
+    }
+
+    /**
+     * Sets maximum number of requests that {@link #updateAll(String, Map)} and {@link #removeAll(String, Collection)}
+     * keep in flight at once.
+     *
+     * @param bulkParallelism maximum number of concurrent bulk requests
+     */
+    public void setBulkParallelism(int bulkParallelism) {
+        Assert.isTrue(bulkParallelism > 0, "bulk parallelism must be greater than zero");
+        this.bulkParallelism = bulkParallelism;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Enables read-through caching of records retrieved with {@link #get(String, Long, Class)}. Cached records are
+     * invalidated when updated or removed through this client.
+     *
+     * @param entityCache entity cache or null to disable caching
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    /**
+     * Enables caching of {@link #count(String, Filterable)} results. Cached counts of the path are invalidated when
+     * records are created, updated or removed through this client.
+     *
+     * @param countCache count cache or null to disable caching
+     */
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+
+    public boolean isRequestCoalescing() {
+        return requestCoalescing;
+    }
+
+    /**
+     * Enables coalescing of concurrent identical read requests. While get, count or find request is in flight,
+     * identical requests from other threads wait for it and share its result or exception instead of sending their own
+     * request to storage. Every caller of find receives its own list, but listed records are shared.
+     *
+     * @param requestCoalescing true to coalesce concurrent identical read requests
+     */
+    public void setRequestCoalescing(boolean requestCoalescing) {
+        this.requestCoalescing = requestCoalescing;
+    }
+
+    public boolean isFieldProjection() {
+        return fieldProjection;
+    }
+
+    /**
+     * Enables field projection. When filterable does not define fields, fields parameter of find, list, seek and scan
+     * requests is derived from properties of response type that are bound during deserialization. Storage then skips
+     * columns that would be ignored anyway, e.g. large json_content of summary models. Records retrieved as {@link
+     * JsonNode}, String or map are not projected. Properties marked with {@link ViewProperty} are left out for data
+     * resources that have {@link #registerView(String, String) registered views}.
+     *
+     * @param fieldProjection true to derive fields from response type
+     */
+    public void setFieldProjection(boolean fieldProjection) {
+        this.fieldProjection = fieldProjection;
+    }
+
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Enables canonicalization of repeated string values. Values of {@link PooledString} properties, e.g. statuses or
+     * organization and information system names, are replaced with pooled instances during deserialization, so large
+     * result lists retain every distinct value once. Pool is registered as default attribute of client object mapper.
+     * <p>Rest template and its object mapper may be shared with other components, therefore on first call the client
+     * copies the object mapper and continues with private rest template that converts with the copy and reuses HTTP
+     * transport of the shared one. {@link #getRestTemplate()} returns the private rest template since then.</p>
+     *
+     * @param stringPool bounded string pool or null to disable canonicalization
+     */
+    public void setStringPool(StringPool stringPool) {
+        if (!ownsObjectMapper) {
+            useObjectMapperCopy();
+        }
+
+        DeserializationConfig config = objectMapper.getDeserializationConfig();
+        ContextAttributes attributes = config.getAttributes();
+        objectMapper.setConfig(config.with(stringPool != null
+                ? attributes.withSharedAttribute(PooledStringDeserializer.POOL_ATTRIBUTE, stringPool)
+                : attributes.withoutSharedAttribute(PooledStringDeserializer.POOL_ATTRIBUTE)));
+        this.stringPool = stringPool;
+    }
+
+    public GetBatchDispatcher getGetBatchDispatcher() {
+        return getBatchDispatcher;
+    }
+
+    /**
+     * Enables batching of concurrent {@link #get(String, Long, Class)} calls. Calls arriving within batch window are
+     * gathered per path and loaded with bulk requests of {@link #getAll(String, String, Collection, Class)}. Only paths
+     * with {@link #registerIdProperty(String, String) registered id property} are batched.
+     * <p>Batched ids are fetched with range queries like in {@link #getAll(String, String, Collection, Class)}, so
+     * batching pays off when concurrently requested ids are close to each other. Ids further apart than range span
+     * limit are still fetched with one request per id.</p>
+     *
+     * @param getBatchDispatcher batch dispatcher or null to disable batching
+     */
+    public void setGetBatchDispatcher(GetBatchDispatcher getBatchDispatcher) {
+        this.getBatchDispatcher = getBatchDispatcher;
+    }
+
+    /**
+     * Declares name of record id property of data resource path. Required for batching of single record requests.
+     *
+     * @param path       data resource path
+     * @param idProperty name of record id property
+     */
+    public void registerIdProperty(String path, String idProperty) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.hasText(idProperty, "id property must be specified");
+
+        idPropertiesByPath.put(path, idProperty);
+    }
+
+    /**
+     * Declares that records of view path are derived from records of given path and share their ids. Writes to path
+     * invalidate cached data of the view as well.
+     *
+     * @param path     data resource path
+     * @param viewPath path of view over data resource
+     */
+    public void registerView(String path, String viewPath) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.hasText(viewPath, "view path must be specified");
+
+        viewsByPath.computeIfAbsent(path, key -> new CopyOnWriteArraySet<>()).add(viewPath);
+    }
+
+    /**
+     * Non-blocking view of this client that runs requests on {@link #getExecutor() client executor}.
+     *
+     * @return async storage client
+     */
+    public AsyncStorageClient async() {
+        return asyncStorageClient;
+    }
+
     /**
      * Convenient overload of {@link #find(String, Pageable, Filterable, Class)}
      *
@@ -116,8 +443,23 @@ public class StorageClient {
     public <T> List<T> find(String path, Pageable pageable, Filterable filterable, final Class<T> responseType) {
         Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
 
+        if (!requestCoalescing) {
+            return fetchList(path, pageable, filterable, responseType);
+        }
+
+        List<T> found = coalesce(
+                Arrays.asList(GET, path,
+                        pageable != null ? pageable.getOffset() : null,
+                        pageable != null ? pageable.getPageSize() : null,
+                        CanonicalFilter.of(filterable), responseType),
+                () -> fetchList(path, pageable, filterable, responseType));
+
+        return found != null ? new ArrayList<>(found) : null;
+    }
+
+    private <T> List<T> fetchList(String path, Pageable pageable, Filterable filterable, final Class<T> responseType) {
         UriComponentsBuilder uriBuilder = createRequestForPathAndOperation(baseUrl, path, GET);
-        StorageRepositoryUriHelper.setFilter(uriBuilder, pageable, filterable);
+        StorageRepositoryUriHelper.setFilter(uriBuilder, pageable, project(path, filterable, responseType));
 
         ParameterizedTypeReference<List<T>> listResponseType = new ParameterizedTypeReference<List<T>>() {
             @Override
@@ -158,6 +500,105 @@ public class StorageClient {
         return find(path, null, filterable, responseType);
     }
 
+    /**
+     * Retrieves data from storage same way as {@link #find(String, Pageable, Filterable, Class)}, but instead of
+     * building list of found resources decodes response array incrementally and passes every resource to consumer as
+     * soon as it is read. Memory consumption does not depend on number of found resources.
+     *
+     * @param path         data resource path
+     * @param pageable     pagination
+     * @param filterable   filtering, sorting and fields
+     * @param responseType the type of the returned resource
+     * @param consumer     consumer of found resources
+     * @return number of found resources
+     */
+    public <T> long find(String path, Pageable pageable, Filterable filterable, final Class<T> responseType,
+                         Consumer<? super T> consumer) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.notNull(consumer, "consumer must be provided");
+
+        UriComponentsBuilder uriBuilder = createRequestForPathAndOperation(baseUrl, path, GET);
+        StorageRepositoryUriHelper.setFilter(uriBuilder, pageable, project(path, filterable, responseType));
+
+        Long count = restTemplate.execute(uriBuilder.build(false).toUriString(), HttpMethod.GET,
+                request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON)),
+                response -> readArray(response.getBody(), responseType, consumer));
+
+        return count != null ? count : 0L;
+    }
+
+    private <T> long readArray(InputStream body, Class<T> elementType, Consumer<? super T> consumer)
+            throws IOException {
+        ObjectReader elementReader = objectMapper.readerFor(elementType);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return 0L;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonMappingException(parser, "Expected array of resources but got " + token);
+            }
+
+            long count = 0L;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                consumer.accept(elementReader.<T>readValue(parser));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Convenient overload of {@link #stream(String, Filterable, Class, int)} with default page size.
+     *
+     * @param path         data resource path
+     * @param filterable   filtering, sorting and fields
+     * @param responseType the type of the returned resource
+     * @return lazy stream of found resources
+     */
+    public <T> Stream<T> stream(String path, Filterable filterable, Class<T> responseType) {
+        return stream(path, filterable, responseType, DEFAULT_STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Convenient overload of {@link #stream(String, Filterable, Class, int, int)} that prefetches single page.
+     *
+     * @param path         data resource path
+     * @param filterable   filtering, sorting and fields
+     * @param responseType the type of the returned resource
+     * @param pageSize     number of records fetched per request
+     * @return lazy stream of found resources
+     */
+    public <T> Stream<T> stream(String path, Filterable filterable, Class<T> responseType, int pageSize) {
+        return stream(path, filterable, responseType, pageSize, DEFAULT_STREAM_PREFETCH_PAGES);
+    }
+
+    /**
+     * <p>Lazily streams all found resources. Resources are retrieved page by page using {@link #find(String, Pageable,
+     * Filterable, Class)} as the stream is consumed. Following pages are fetched on {@link #getExecutor() client
+     * executor} while current page is consumed, at most given number of pages are in flight.</p>
+     * <p>Filterable should define stable sort order, otherwise records may be skipped or repeated on page boundaries.
+     * Stream should be closed when it is not consumed until the end in order to cancel prefetched pages.</p>
+     *
+     * @param path          data resource path
+     * @param filterable    filtering, sorting and fields
+     * @param responseType  the type of the returned resource
+     * @param pageSize      number of records fetched per request
+     * @param prefetchPages maximum number of pages fetched in background
+     * @return lazy stream of found resources
+     */
+    public <T> Stream<T> stream(String path, Filterable filterable, Class<T> responseType, int pageSize,
+                                int prefetchPages) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+
+        PrefetchingPageIterator<T> iterator = new PrefetchingPageIterator<>(
+                pageable -> find(path, pageable, filterable, responseType), executor, pageSize, prefetchPages);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
     /**
      * Stores json entity in the storage.
      *
@@ -166,8 +607,48 @@ public class StorageClient {
      * @return ids of created entities
      */
     public List<Long> create(String path, Object entity) {
-        return postRequest(path, entity, POST, new ParameterizedTypeReference<List<Long>>() {
-        });
+        try {
+            return postRequest(path, entity, POST, new ParameterizedTypeReference<List<Long>>() {
+            });
+        } finally {
+            invalidateCachedCounts(path);
+        }
+    }
+
+    /**
+     * Stores many json entities in the storage. Entities are sent as array payloads of at most {@value
+     * #BULK_CHUNK_SIZE} entities. Chunks are sent one after another, so when a chunk fails entities of preceding chunks
+     * remain stored.
+     *
+     * @param path     data resource path
+     * @param entities entity models
+     * @return ids of created entities in order of given entities
+     * @see BufferedStorageWriter
+     */
+    public List<Long> createAll(String path, Collection<?> entities) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.notNull(entities, "entities must be provided");
+
+        List<Long> ids = new ArrayList<>(entities.size());
+        List<Object> chunk = new ArrayList<>(Math.min(entities.size(), BULK_CHUNK_SIZE));
+        for (Object entity : entities) {
+            chunk.add(entity);
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                ids.addAll(createChunk(path, chunk));
+                chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            ids.addAll(createChunk(path, chunk));
+        }
+
+        return ids;
+    }
+
+    List<Long> createChunk(String path, List<?> chunk) {
+        List<Long> ids = create(path, chunk);
+        return ids != null ? ids : Collections.<Long>emptyList();
     }
 
     private <T> T postRequest(String path, Object entity, OperationType operationType,
@@ -202,12 +683,170 @@ public class StorageClient {
      * @return single record with given id
      */
     public <T> T get(String path, Long id, Class<T> responseType) {
-        UriComponentsBuilder uriBuilder = createRequestForPathAndOperation(baseUrl, path + "/" + id.toString(), GET);
-        return restTemplate.getForObject(uriBuilder.toUriString(), responseType);
+        EntityCache cache = entityCache;
+        if (cache == null) {
+            return fetch(path, id, responseType);
+        }
+
+        T cached = cache.get(path, id, responseType, objectMapper);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = cache.beginLoad(path, id, responseType);
+        T entity = null;
+        try {
+            entity = fetch(path, id, responseType);
+            return entity;
+        } finally {
+            cache.completeLoad(path, id, responseType, generation, entity, objectMapper);
+        }
+    }
+
+    private <T> T fetch(String path, Long id, Class<T> responseType) {
+        GetBatchDispatcher dispatcher = getBatchDispatcher;
+        String idProperty = idPropertiesByPath.get(path);
+        if (dispatcher != null && idProperty != null) {
+            T entity;
+            try {
+                entity = dispatcher.fetch(path, idProperty, id, responseType, batchLoader, executor);
+            } catch (RejectedExecutionException e) {
+                // Saturated executor, record is fetched directly
+                return fetchDirectly(path, id, responseType);
+            }
+            if (entity == null) {
+                throw new StorageClientException(new StorageError(INPUT_NO_OBJECT_FOUND_WITH_GIVEN_ID,
+                        "No object found with id " + id + " in " + path, null));
+            }
+            return entity;
+        }
+
+        return fetchDirectly(path, id, responseType);
+    }
+
+    private <T> T fetchDirectly(String path, Long id, Class<T> responseType) {
+
+        return coalesce(Arrays.asList(GET, path, id, responseType), () -> {
+            UriComponentsBuilder uriBuilder = createRequestForPathAndOperation(baseUrl, path + "/" + id.toString(),
+                    GET);
+            return restTemplate.getForObject(uriBuilder.toUriString(), responseType);
+        });
     }
 
     /**
-     * Retrieve paged records and converts them to specified type.
+     * <p>Retrieves records with given ids. RIHA-Storage filter grammar has no set membership operation, therefore ids
+     * are split into chunks of close ids and every chunk is fetched with single range query
+     * <pre>
+     * filter = id-property ",>=," first-id "," id-property ",<=," last-id
+     * </pre>
+     * Records that were not requested are dropped. Chunk holds at most 100 ids and spans at most 400 consecutive ids,
+     * so sparse ids degrade to one request per id. Chunks are fetched in parallel on {@link #getExecutor() client
+     * executor}. Records present in {@link #setEntityCache(EntityCache) entity cache} are not fetched.</p>
+     *
+     * @param path         data resource path
+     * @param idProperty   name of record id property
+     * @param ids          ids of records
+     * @param responseType the type of the returned resources
+     * @return found records by their ids in order of given ids, missing records are absent
+     */
+    public <T> Map<Long, T> getAll(String path, String idProperty, Collection<Long> ids, Class<T> responseType) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.hasText(idProperty, "id property must be specified");
+        Assert.notNull(ids, "ids must be provided");
+
+        EntityCache cache = entityCache;
+        Map<Long, T> found = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            T cached = cache != null && id != null ? cache.get(path, id, responseType, objectMapper) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        if (cache == null) {
+            found.putAll(fetchByIds(path, idProperty, missingIds, responseType));
+        } else {
+            Map<Long, Long> generations = new HashMap<>();
+            for (Long id : missingIds) {
+                if (id != null && !generations.containsKey(id)) {
+                    generations.put(id, cache.beginLoad(path, id, responseType));
+                }
+            }
+
+            Map<Long, T> fetched = Collections.emptyMap();
+            try {
+                fetched = fetchByIds(path, idProperty, missingIds, responseType);
+            } finally {
+                for (Map.Entry<Long, Long> generation : generations.entrySet()) {
+                    cache.completeLoad(path, generation.getKey(), responseType, generation.getValue(),
+                                       fetched.get(generation.getKey()), objectMapper);
+                }
+            }
+            found.putAll(fetched);
+        }
+
+        Map<Long, T> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            T entity = found.get(id);
+            if (entity != null) {
+                result.put(id, entity);
+            }
+        }
+        return result;
+    }
+
+    <T> Map<Long, T> fetchByIds(String path, String idProperty, Collection<Long> ids, Class<T> responseType) {
+        List<ForkedTask<Map<Long, T>>> chunks = new ArrayList<>();
+        for (IdRange range : IdRange.split(ids, BULK_CHUNK_SIZE, BULK_CHUNK_SIZE * BULK_CHUNK_MAX_SPAN_FACTOR)) {
+            chunks.add(ForkedTask.fork(() -> fetchIdRange(path, idProperty, range, responseType), executor));
+        }
+
+        Map<Long, T> found = new HashMap<>();
+        for (ForkedTask<Map<Long, T>> chunk : chunks) {
+            found.putAll(chunk.join());
+        }
+        return found;
+    }
+
+    private <T> Map<Long, T> fetchIdRange(String path, String idProperty, IdRange range, Class<T> responseType) {
+        FilterRequest filter = new FilterRequest(null, null,
+                withField(projectedFields(path, responseType), idProperty));
+        if (range.getSpan() == 1) {
+            filter.addFilter(idProperty + ",=," + range.getFirst());
+        } else {
+            filter.addFilter(idProperty + ",>=," + range.getFirst());
+            filter.addFilter(idProperty + ",<=," + range.getLast());
+        }
+
+        List<JsonNode> rows = fetchList(path, new PageRequest(0, (int) range.getSpan()), filter, JsonNode.class);
+
+        Set<Long> requestedIds = new HashSet<>(range.getIds());
+        Map<Long, T> found = new HashMap<>();
+        if (rows != null) {
+            for (JsonNode row : rows) {
+                JsonNode id = row.get(idProperty);
+                if (id != null && requestedIds.contains(id.asLong())) {
+                    found.put(id.asLong(), convertRow(row, responseType));
+                }
+            }
+        }
+        return found;
+    }
+
+    private <T> T convertRow(JsonNode row, Class<T> responseType) {
+        try {
+            return objectMapper.treeToValue(row, responseType);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Could not read storage record: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieve paged records and converts them to specified type. Count and find requests are issued in parallel when
+     * {@link #setConcurrentListing(boolean) concurrent listing} is enabled.
      *
      * @param path         data resource path
      * @param pageable     paging information
@@ -219,6 +858,10 @@ public class StorageClient {
                                      Class<T> responseType) {
         Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
 
+        if (concurrentListing) {
+            return listConcurrently(path, pageable, filterable, responseType);
+        }
+
         PagedResponse<T> response = new PagedResponse<>(pageable);
 
         long totalElements = count(path, filterable);
@@ -231,6 +874,178 @@ public class StorageClient {
         return response;
     }
 
+    private <T> PagedResponse<T> listConcurrently(String path, Pageable pageable, Filterable filterable,
+                                                  Class<T> responseType) {
+        ForkedTask<Long> count = ForkedTask.fork(() -> count(path, filterable), executor);
+
+        List<T> content;
+        try {
+            content = find(path, pageable, filterable, responseType);
+        } catch (RuntimeException e) {
+            count.cancel();
+            throw e;
+        }
+
+        PagedResponse<T> response = new PagedResponse<>(pageable);
+
+        long totalElements = count.join();
+        response.setTotalElements(totalElements);
+
+        if (totalElements > 0) {
+            response.setContent(content);
+        }
+
+        return response;
+    }
+
+    /**
+     * Retrieves single page of records without counting total number of records. One record more than page size is
+     * requested to find out whether next page exists. Total count is requested lazily only if {@link
+     * SlicedResponse#getTotalElements()} or {@link SlicedResponse#getTotalPages()} is called.
+     *
+     * @param path         data resource path
+     * @param pageable     paging information
+     * @param filterable   filtering information
+     * @param responseType concrete class for result binding
+     * @return sliced response
+     */
+    public <T> SlicedResponse<T> slice(String path, Pageable pageable, Filterable filterable,
+                                       Class<T> responseType) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.notNull(pageable, "pageable must not be null");
+
+        List<T> content = find(path, new LookAheadPageable(pageable), filterable, responseType);
+        if (content == null) {
+            content = Collections.emptyList();
+        }
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+
+        return new SlicedResponse<>(pageable, content, hasNext, () -> count(path, filterable));
+    }
+
+    /**
+     * <p>Retrieves page of records with keyset (seek) pagination. Instead of skipping records with offset, page is
+     * selected with filter "sort key greater than last seen value", so latency of a page does not depend on how deep
+     * it is and records do not shift between pages when preceding records are created or removed during the scan.</p>
+     * <p>Sort key must be unique and non-null property of every record, e.g. record id, and its values must not contain
+     * commas. It is prefixed with "-" for descending order as in sort definition. Sort of given filterable is replaced
+     * with sort key and sort key property is added to selected fields when those are restricted.</p>
+     *
+     * @param path              data resource path
+     * @param sortKey           unique sort property, optionally prefixed with "-"
+     * @param filterable        filter definition or null
+     * @param continuationToken token of previous page or null for the first page
+     * @param size              maximum number of records in page
+     * @param responseType      concrete class for result binding
+     * @return page of records with continuation token of the next page
+     * @throws IllegalArgumentException when continuation token was not issued for given sort key
+     */
+    public <T> SeekResponse<T> seek(String path, String sortKey, Filterable filterable, String continuationToken,
+                                    int size, Class<T> responseType) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.hasText(sortKey, "sort key must be specified");
+        Assert.isTrue(size > 0, "size must be greater than zero");
+
+        boolean descending = sortKey.startsWith("-");
+        String keyProperty = descending ? sortKey.substring(1) : sortKey;
+
+        FilterRequest seekFilter = new FilterRequest(
+                filterable != null && StringUtils.hasText(filterable.getFilter()) ? filterable.getFilter() : null,
+                sortKey,
+                withField(filterable != null && filterable.getFields() != null
+                                  ? filterable.getFields()
+                                  : projectedFields(path, responseType), keyProperty));
+        if (continuationToken != null) {
+            SeekCursor cursor = SeekCursor.parse(continuationToken, sortKey);
+            seekFilter.addFilter(keyProperty + (descending ? ",<," : ",>,") + cursor.getLastValue());
+        }
+
+        List<JsonNode> rows = fetchList(path, new PageRequest(0, size + 1), seekFilter, JsonNode.class);
+        if (rows == null) {
+            rows = Collections.emptyList();
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<JsonNode> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        List<T> content = new ArrayList<>(pageRows.size());
+        for (JsonNode row : pageRows) {
+            content.add(convertRow(row, responseType));
+        }
+
+        String nextToken = null;
+        if (hasNext) {
+            JsonNode lastValue = pageRows.get(pageRows.size() - 1).get(keyProperty);
+            if (lastValue == null || lastValue.isNull()) {
+                throw new IllegalStateException("Record has no value of sort key property " + keyProperty);
+            }
+            nextToken = new SeekCursor(sortKey, lastValue.asText()).toToken();
+        }
+
+        return new SeekResponse<>(size, content, nextToken);
+    }
+
+    /**
+     * <p>Scans all matching records splitting table into id ranges that are fetched concurrently. Bounds of record ids
+     * are found first, id range between them is split into {@link ScanSettings#getPartitions() partitions} and every
+     * partition is read page by page with {@link #seek(String, String, Filterable, String, int, Class) keyset
+     * pagination} on scan executor.</p>
+     * <p>Records are passed to consumer from partition worker threads as pages arrive, so consumer must be thread safe
+     * and records of different partitions interleave. When any partition fails, other partitions stop after their
+     * current page and the failure is rethrown.</p>
+     *
+     * @param path         data resource path
+     * @param idProperty   name of numeric record id property
+     * @param filterable   filter definition or null, its sort is ignored
+     * @param settings     scan settings or null for defaults
+     * @param responseType concrete class for result binding
+     * @param consumer     thread safe consumer of scanned records
+     * @return final progress of the scan
+     */
+    public <T> ScanProgress scan(String path, String idProperty, Filterable filterable, ScanSettings settings,
+                                 Class<T> responseType, Consumer<? super T> consumer) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.hasText(idProperty, "id property must be specified");
+        Assert.notNull(consumer, "consumer must be provided");
+
+        ScanSettings scanSettings = settings != null ? settings : new ScanSettings();
+        Assert.isTrue(scanSettings.getPartitions() > 0, "number of partitions must be greater than zero");
+        Assert.isTrue(scanSettings.getPageSize() > 0, "page size must be greater than zero");
+
+        return new PartitionedScan<>(this, path, idProperty, filterable, scanSettings, responseType, consumer).run();
+    }
+
+    private Filterable project(String path, Filterable filterable, Class<?> responseType) {
+        if (filterable != null && filterable.getFields() != null) {
+            return filterable;
+        }
+
+        String fields = projectedFields(path, responseType);
+        if (fields == null) {
+            return filterable;
+        }
+
+        return filterable != null
+                ? new FilterRequest(filterable.getFilter(), filterable.getSort(), fields)
+                : new FilterRequest(null, null, fields);
+    }
+
+    private String projectedFields(String path, Class<?> responseType) {
+        // Data resources with registered views are known not to have view properties, other paths may be views
+        return fieldProjection ? fieldProjector.fieldsOf(responseType, !viewsByPath.containsKey(path)) : null;
+    }
+
+    private static String withField(String fields, String field) {
+        if (fields == null || Arrays.asList(StringUtils.tokenizeToStringArray(fields, ",")).contains(field)) {
+            return fields;
+        }
+        return fields + "," + field;
+    }
+
     /**
      * Performs count operation on storage with defined filter.
      *
@@ -242,12 +1057,39 @@ public class StorageClient {
     public long count(String path, Filterable filterable) {
         Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
 
-        UriComponentsBuilder uriBuilder = createRequestForPathAndOperation(baseUrl, path, COUNT);
-        StorageRepositoryUriHelper.setFilter(uriBuilder, null, filterable);
+        CountCache cache = countCache;
+        if (cache != null) {
+            Long cached = cache.get(path, filterable);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        if (cache == null) {
+            return fetchCount(path, filterable);
+        }
+
+        long generation = cache.beginLoad(path, filterable);
+        Long count = null;
+        try {
+            count = fetchCount(path, filterable);
+            return count;
+        } finally {
+            cache.completeLoad(path, filterable, generation, count);
+        }
+    }
 
-        JsonNode response = restTemplate.getForObject(uriBuilder.build(false).toUriString(), JsonNode.class);
+    private long fetchCount(String path, Filterable filterable) {
+        String canonicalFilter = filterable != null ? CanonicalFilter.canonicalFilter(filterable.getFilter()) : "";
+        return coalesce(Arrays.asList(COUNT, path, canonicalFilter),
+                () -> {
+                    UriComponentsBuilder uriBuilder = createRequestForPathAndOperation(baseUrl, path, COUNT);
+                    StorageRepositoryUriHelper.setFilter(uriBuilder, null, filterable);
 
-        return response.get("ok").asLong();
+                    JsonNode response = restTemplate.getForObject(uriBuilder.build(false).toUriString(),
+                            JsonNode.class);
+                    return response.get("ok").asLong();
+                });
     }
 
     public PagedGridResponse<Comment> list(String path, CompositeFilterRequest filterRequest, Pageable pageable) {
@@ -273,11 +1115,15 @@ public class StorageClient {
      * @return number of updated records
      */
     public Long update(String path, Long id, Object entity) {
-        JsonNode response = postRequest(path + "/" + id.toString(), entity, PUT,
-                new ParameterizedTypeReference<JsonNode>() {
-                });
+        try {
+            JsonNode response = postRequest(path + "/" + id.toString(), entity, PUT,
+                    new ParameterizedTypeReference<JsonNode>() {
+                    });
 
-        return response.get("ok").asLong();
+            return response.get("ok").asLong();
+        } finally {
+            invalidateCaches(path, id);
+        }
     }
 
     /**
@@ -288,11 +1134,120 @@ public class StorageClient {
      * @return number of deleted records
      */
     public Long remove(String path, Long id) {
-        JsonNode response = postRequest(path + "/" + id.toString(), null, DELETE,
-                new ParameterizedTypeReference<JsonNode>() {
-                });
+        try {
+            JsonNode response = postRequest(path + "/" + id.toString(), null, DELETE,
+                    new ParameterizedTypeReference<JsonNode>() {
+                    });
+
+            return response.get("ok").asLong();
+        } finally {
+            invalidateCaches(path, id);
+        }
+    }
+
+    /**
+     * Updates existing entities in the storage. Storage has no bulk update operation, so every entity is updated with
+     * its own request. At most {@link #getBulkParallelism() bulk parallelism} requests run at once on the executor.
+     * Failure of single update does not stop the others.
+     *
+     * @param path     data resource path
+     * @param entities entities by record ids
+     * @return number of updated records or failure cause of every id
+     */
+    public BulkOperationResult<Long, Long> updateAll(String path, Map<Long, ?> entities) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.notNull(entities, "entities must be provided");
+
+        return BulkOperations.execute(entities.keySet(), id -> update(path, id, entities.get(id)), bulkParallelism,
+                                      executor);
+    }
+
+    /**
+     * Removes existing entities from the storage. Every entity is removed with its own request. At most {@link
+     * #getBulkParallelism() bulk parallelism} requests run at once on the executor. Failure of single removal does not
+     * stop the others.
+     *
+     * @param path data resource path
+     * @param ids  record ids
+     * @return number of deleted records or failure cause of every id
+     */
+    public BulkOperationResult<Long, Long> removeAll(String path, Collection<Long> ids) {
+        Assert.hasText(path, MESSAGE_PATH_MUST_BE_SPECIFIED);
+        Assert.notNull(ids, "ids must be provided");
+
+        return BulkOperations.execute(ids, id -> remove(path, id), bulkParallelism, executor);
+    }
 
-        return response.get("ok").asLong();
+    /**
+     * Shuts down connection pool and idle connection evictor of HTTP transport created by this client. Transport of
+     * rest template provided on construction is owned by the caller and is left open.
+     *
+     * @throws IOException when connection pool can not be shut down
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownedHttpClient != null) {
+            ownedHttpClient.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V coalesce(List<Object> requestKey, Supplier<V> request) {
+        return requestCoalescing ? (V) inFlightReads.execute(requestKey, request) : request.get();
+    }
+
+    private void invalidateCaches(String path, Long id) {
+        EntityCache cache = entityCache;
+        if (cache != null) {
+            for (String affectedPath : getAffectedPaths(path)) {
+                cache.invalidate(affectedPath, id);
+            }
+        }
+        invalidateCachedCounts(path);
+    }
+
+    private void invalidateCachedCounts(String path) {
+        CountCache cache = countCache;
+        if (cache != null) {
+            cache.invalidate(getAffectedPaths(path));
+        }
+    }
+
+    private Set<String> getAffectedPaths(String path) {
+        Set<String> views = viewsByPath.get(path);
+        if (views == null || views.isEmpty()) {
+            return Collections.singleton(path);
+        }
+
+        Set<String> affectedPaths = new HashSet<>(views);
+        affectedPaths.add(path);
+        return affectedPaths;
+    }
+
+    /**
+     * Requests one record more than given page size starting from the same offset.
+     */
+    private static class LookAheadPageable implements Pageable {
+        private final Pageable delegate;
+
+        LookAheadPageable(Pageable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int getPageNumber() {
+            return delegate.getPageNumber();
+        }
+
+        @Override
+        public int getPageSize() {
+            return delegate.getPageSize() + 1;
+        }
+
+        @Override
+        public int getOffset() {
+            return delegate.getOffset();
+        }
     }
 
     public class ParameterizedListTypeReference implements ParameterizedType {
@@ -0,0 +1,115 @@
+package ee.ria.riha.storage.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of executors that run RIHA-Storage requests concurrently.
+ */
+@Slf4j
+public class StorageExecutors {
+
+    private static final int DEFAULT_MAX_THREADS = 32;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private StorageExecutors() {
+    }
+
+    /**
+     * Returns shared default executor. Virtual thread per task executor is used when running on JVM that supports
+     * virtual threads, otherwise shared bounded executor is used.
+     *
+     * @return default executor
+     * @see #newBoundedExecutor(int, int, String)
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Convenient overload of {@link #newBoundedExecutor(int, int, String)} with default queue capacity.
+     *
+     * @param maxThreads       maximum number of threads
+     * @param threadNamePrefix name prefix of created threads
+     * @return bounded executor
+     */
+    public static ExecutorService newBoundedExecutor(int maxThreads, String threadNamePrefix) {
+        return newBoundedExecutor(maxThreads, DEFAULT_QUEUE_CAPACITY, threadNamePrefix);
+    }
+
+    /**
+     * Creates executor with at most given number of daemon threads. Threads are created on demand and terminated when
+     * idle. When all threads are busy, tasks wait in bounded queue. When the queue is full, task is rejected with
+     * {@link java.util.concurrent.RejectedExecutionException} instead of being run by the submitting thread, so
+     * asynchronous operations never block their caller and complete exceptionally instead.
+     *
+     * @param maxThreads       maximum number of threads
+     * @param queueCapacity    maximum number of waiting tasks
+     * @param threadNamePrefix name prefix of created threads
+     * @return bounded executor
+     */
+    public static ExecutorService newBoundedExecutor(int maxThreads, int queueCapacity, String threadNamePrefix) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(queueCapacity),
+                new DaemonThreadFactory(threadNamePrefix),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates virtual thread per task executor when running on JVM that supports virtual threads.
+     *
+     * @return virtual thread executor or null if virtual threads are not available
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Virtual thread executor is not available", e);
+            return null;
+        }
+    }
+
+    private static class DefaultExecutorHolder {
+        private static final Executor INSTANCE = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+            return virtualThreadExecutor != null
+                    ? virtualThreadExecutor
+                    : newBoundedExecutor(DEFAULT_MAX_THREADS, "storage-client-");
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String threadNamePrefix;
+
+        DaemonThreadFactory(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
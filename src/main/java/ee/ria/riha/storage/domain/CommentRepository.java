@@ -1,11 +1,19 @@
 package ee.ria.riha.storage.domain;
 
+import ee.ria.riha.storage.client.BulkOperationResult;
+import ee.ria.riha.storage.client.ScanProgress;
+import ee.ria.riha.storage.client.ScanSettings;
 import ee.ria.riha.storage.client.StorageClient;
 import ee.ria.riha.storage.domain.model.Comment;
 import ee.ria.riha.storage.util.*;
 import org.springframework.util.Assert;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Makes calls against RIHA-Storage and performs various operations on {@link Comment} entities.
@@ -17,12 +25,15 @@ public class CommentRepository implements StorageRepository<Long, Comment> {
     private static final String COMMENT_PATH = "db/comment";
     private static final String COMMENT_TYPE_ISSUE_VIEW_PATH = "db/comment_type_issue_view";
     private static final String DASHBOARD_COMMENT_PATH = "/comment";
+    private static final String COMMENT_ID_PROPERTY = "comment_id";
 
     private final StorageClient storageClient;
 
     public CommentRepository(StorageClient storageClient) {
         Assert.notNull(storageClient, "Storage client must be provided");
         this.storageClient = storageClient;
+        this.storageClient.registerView(COMMENT_PATH, COMMENT_TYPE_ISSUE_VIEW_PATH);
+        this.storageClient.registerIdProperty(COMMENT_PATH, COMMENT_ID_PROPERTY);
     }
 
     @Override
@@ -43,16 +54,109 @@ public class CommentRepository implements StorageRepository<Long, Comment> {
         return storageClient.get(COMMENT_PATH, id, Comment.class);
     }
 
+    @Override
+    public Map<Long, Comment> getAll(Collection<Long> ids) {
+        return storageClient.getAll(COMMENT_PATH, COMMENT_ID_PROPERTY, ids, Comment.class);
+    }
+
     @Override
     public List<Comment> find(Filterable filterable) {
         return storageClient.find(COMMENT_PATH, filterable, Comment.class);
     }
 
+    /**
+     * Lists resources without counting total number of resources. See {@link StorageClient#slice(String, Pageable,
+     * Filterable, Class)} for details.
+     *
+     * @param pageable   paging definition
+     * @param filterable filter definition
+     * @return single page of resources with next page indicator
+     */
+    public SlicedResponse<Comment> slice(Pageable pageable, Filterable filterable) {
+        return storageClient.slice(COMMENT_PATH, pageable, filterable, Comment.class);
+    }
+
+    /**
+     * Lists resources in order of ids with keyset pagination. See {@link StorageClient#seek(String, String, Filterable,
+     * String, int, Class)} for details.
+     *
+     * @param filterable        filter definition, its sort is ignored
+     * @param continuationToken token of previous page or null for the first page
+     * @param size              maximum number of resources in page
+     * @return single page of resources with continuation token of the next page
+     */
+    public SeekResponse<Comment> seek(Filterable filterable, String continuationToken, int size) {
+        return storageClient.seek(COMMENT_PATH, COMMENT_ID_PROPERTY, filterable, continuationToken, size,
+                Comment.class);
+    }
+
+    /**
+     * Scans all found resources fetching id ranges concurrently. See {@link StorageClient#scan(String, String,
+     * Filterable, ScanSettings, Class, Consumer)} for details.
+     *
+     * @param filterable filter definition
+     * @param settings   scan settings or null for defaults
+     * @param consumer   thread safe consumer of found resources
+     * @return final progress of the scan
+     */
+    public ScanProgress scan(Filterable filterable, ScanSettings settings, Consumer<? super Comment> consumer) {
+        return storageClient.scan(COMMENT_PATH, COMMENT_ID_PROPERTY, filterable, settings, Comment.class, consumer);
+    }
+
+    /**
+     * Finds resources passing them to consumer one by one as they are decoded from storage response. See {@link
+     * StorageClient#find(String, Pageable, Filterable, Class, Consumer)} for details.
+     *
+     * @param filterable filter definition
+     * @param consumer   consumer of found resources
+     * @return number of found resources
+     */
+    public long find(Filterable filterable, Consumer<? super Comment> consumer) {
+        return storageClient.find(COMMENT_PATH, null, filterable, Comment.class, consumer);
+    }
+
+    @Override
+    public CompletableFuture<PagedResponse<Comment>> listAsync(Pageable pageable, Filterable filterable) {
+        return storageClient.async().list(COMMENT_PATH, pageable, filterable, Comment.class);
+    }
+
+    @Override
+    public CompletableFuture<Comment> getAsync(Long id) {
+        return storageClient.async().get(COMMENT_PATH, id, Comment.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Comment>> findAsync(Filterable filterable) {
+        return storageClient.async().find(COMMENT_PATH, filterable, Comment.class);
+    }
+
+    /**
+     * Lazily streams all found resources fetching them page by page. See {@link StorageClient#stream(String,
+     * Filterable, Class, int, int)} for details.
+     *
+     * @param filterable filter definition with stable sort order
+     * @return lazy stream of found resources
+     */
+    public Stream<Comment> stream(Filterable filterable) {
+        return storageClient.stream(COMMENT_PATH, filterable, Comment.class);
+    }
+
     @Override
     public List<Long> add(Comment entity) {
         return storageClient.create(COMMENT_PATH, entity);
     }
 
+    /**
+     * Creates many resources with bulk requests. See {@link StorageClient#createAll(String, Collection)} for
+     * details.
+     *
+     * @param entities resource models
+     * @return list of created resource ids in order of given resources
+     */
+    public List<Long> addAll(Collection<Comment> entities) {
+        return storageClient.createAll(COMMENT_PATH, entities);
+    }
+
     @Override
     public void update(Long id, Comment entity) {
         storageClient.update(COMMENT_PATH, id, entity);
@@ -63,4 +167,25 @@ public class CommentRepository implements StorageRepository<Long, Comment> {
         storageClient.remove(COMMENT_PATH, id);
     }
 
+    /**
+     * Updates many resources with bounded parallelism. See {@link StorageClient#updateAll(String, Map)} for details.
+     *
+     * @param entities resource models by ids
+     * @return outcome of update of every resource
+     */
+    public BulkOperationResult<Long, Long> updateAll(Map<Long, Comment> entities) {
+        return storageClient.updateAll(COMMENT_PATH, entities);
+    }
+
+    /**
+     * Removes many resources with bounded parallelism. See {@link StorageClient#removeAll(String, Collection)} for
+     * details.
+     *
+     * @param ids resource ids
+     * @return outcome of removal of every resource
+     */
+    public BulkOperationResult<Long, Long> removeAll(Collection<Long> ids) {
+        return storageClient.removeAll(COMMENT_PATH, ids);
+    }
+
 }
@@ -0,0 +1,209 @@
+package ee.ria.riha.storage.domain;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Local index of uploaded file resources by SHA-256 hash of their content. Used for deduplication of uploads of the
+ * same content. {@link FileRepository} hashes file name and content type together with content, since copied file
+ * resource keeps them.</p>
+ * <p>Index is persisted as append-only log of text lines: "hash file-uuid info-system-uuid" for stored entry and
+ * "hash -" for removed entry. Log is read on construction and rewritten in compact form when it holds more removed
+ * or replaced entries than live ones. When compaction fails, appending continues to the original log.</p>
+ */
+@Slf4j
+public class FileHashIndex implements AutoCloseable {
+
+    private static final String REMOVED = "-";
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private Writer writer;
+    private int logLineCount;
+
+    /**
+     * Loads index from file or creates new empty index file.
+     *
+     * @param file index file
+     * @throws IOException when index file can not be read or created
+     */
+    public FileHashIndex(Path file) throws IOException {
+        Assert.notNull(file, "index file must be provided");
+        this.file = file;
+
+        if (Files.exists(file)) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                load(line);
+            }
+            logLineCount = lines.size();
+        }
+
+        writer = openLog();
+        if (logLineCount > 2 * entries.size()) {
+            compactLog();
+        }
+    }
+
+    private void load(String line) {
+        String[] items = line.trim().split(" ");
+        try {
+            if (items.length == 2 && REMOVED.equals(items[1])) {
+                entries.remove(items[0]);
+            } else if (items.length == 3) {
+                entries.put(items[0], new Entry(UUID.fromString(items[1]), UUID.fromString(items[2])));
+            }
+        } catch (IllegalArgumentException e) {
+            // Skips line that was partially written when process was stopped
+        }
+    }
+
+    private Writer openLog() throws IOException {
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                                       StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Finds file resource with given content hash.
+     *
+     * @param hash hex encoded SHA-256 hash of content
+     * @return indexed file resource or null
+     */
+    public Entry get(String hash) {
+        return entries.get(hash);
+    }
+
+    /**
+     * Stores file resource for content hash and appends it to index file.
+     *
+     * @param hash           hex encoded SHA-256 hash of content
+     * @param fileUuid       UUID of file resource
+     * @param infoSystemUuid UUID of info system of file resource
+     */
+    public synchronized void put(String hash, UUID fileUuid, UUID infoSystemUuid) {
+        Assert.hasText(hash, "hash must be provided");
+        Assert.notNull(fileUuid, "file UUID must be provided");
+        Assert.notNull(infoSystemUuid, "info system UUID must be provided");
+
+        entries.put(hash, new Entry(fileUuid, infoSystemUuid));
+        append(hash + " " + fileUuid + " " + infoSystemUuid);
+    }
+
+    /**
+     * Removes entry of content hash, e.g. when indexed file resource does not exist anymore.
+     *
+     * @param hash hex encoded SHA-256 hash of content
+     */
+    public synchronized void remove(String hash) {
+        if (entries.remove(hash) != null) {
+            append(hash + " " + REMOVED);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void append(String line) {
+        Assert.state(writer != null, "index is closed");
+        try {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+            logLineCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write file hash index " + file, e);
+        }
+
+        if (logLineCount > 2 * entries.size() + 16) {
+            compactLog();
+        }
+    }
+
+    private void compactLog() {
+        try {
+            writer.close();
+            compact();
+        } catch (IOException e) {
+            log.warn("Could not compact file hash index " + file, e);
+            try {
+                writer = openLog();
+            } catch (IOException reopenException) {
+                throw new UncheckedIOException("Could not reopen file hash index " + file, reopenException);
+            }
+        }
+    }
+
+    /**
+     * Rewrites index file with live entries only.
+     */
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter compactedWriter = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    compactedWriter.write(entry.getKey() + " " + entry.getValue().getFileUuid() + " "
+                                                  + entry.getValue().getInfoSystemUuid());
+                    compactedWriter.write('\n');
+                }
+            }
+
+            try {
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(compacted);
+            } catch (IOException deleteException) {
+                e.addSuppressed(deleteException);
+            }
+            throw e;
+        }
+
+        logLineCount = entries.size();
+        writer = openLog();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Indexed file resource.
+     */
+    @Getter
+    @ToString
+    public static class Entry {
+        private final UUID fileUuid;
+        private final UUID infoSystemUuid;
+
+        public Entry(UUID fileUuid, UUID infoSystemUuid) {
+            this.fileUuid = fileUuid;
+            this.infoSystemUuid = infoSystemUuid;
+        }
+    }
+
+}
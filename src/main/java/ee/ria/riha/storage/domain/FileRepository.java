@@ -1,5 +1,10 @@
 package ee.ria.riha.storage.domain;
 
+import ee.ria.riha.storage.client.BulkOperationResult;
+import ee.ria.riha.storage.client.BulkOperations;
+import ee.ria.riha.storage.client.StorageClient;
+import ee.ria.riha.storage.client.StorageClientException;
+import ee.ria.riha.storage.client.StorageExecutors;
 import ee.ria.riha.storage.domain.model.FileResource;
 import ee.ria.riha.storage.util.CompositeFilterRequest;
 import ee.ria.riha.storage.util.Pageable;
@@ -10,31 +15,90 @@ import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static java.net.HttpURLConnection.HTTP_OK;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
+import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 
 /**
- * Stand alone repository for file resource upload and download.
+ * Stand alone repository for file resource upload and download. All requests including file resource downloads go
+ * through HTTP transport of provided {@link RestTemplate}, so pooled transport created with {@link
+ * ee.ria.riha.storage.client.HttpTransportFactory} may be shared with {@link StorageClient}.
  */
 public class FileRepository {
 
     private static final String FILE_PATH = "/file";
+    private static final int DEFAULT_BULK_PARALLELISM = 4;
+    private static final String PARTIAL_FILE_SUFFIX = ".part";
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+    private static final String VALIDATOR_FILE_SUFFIX = ".validator";
+    private static final int DOWNLOAD_MAX_ATTEMPTS = 3;
+    private static final long DOWNLOAD_RETRY_DELAY_MILLIS = 200;
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final String CRLF = "\r\n";
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
 
     private final RestTemplate restTemplate;
     private final String baseUrl;
+    private volatile ClientHttpRequestFactory streamingRequestFactory;
+    private volatile FileHashIndex fileHashIndex;
+    private volatile FileResourceCache downloadCache;
+    private int bulkParallelism = DEFAULT_BULK_PARALLELISM;
+    private Executor executor = StorageExecutors.defaultExecutor();
+
+    /**
+     * Creates file repository that shares HTTP transport, base URL and executor with given {@link StorageClient}.
+     *
+     * @param storageClient storage client
+     */
+    public FileRepository(StorageClient storageClient) {
+        this(storageClient.getRestTemplate(), storageClient.getBaseUrl());
+        this.executor = storageClient.getExecutor();
+    }
 
     public FileRepository(RestTemplate restTemplate, String baseUrl) {
         Assert.notNull(restTemplate, "restTemplate must be provided");
@@ -43,6 +107,69 @@ public class FileRepository {
         this.baseUrl = baseUrl;
     }
 
+    public FileHashIndex getFileHashIndex() {
+        return fileHashIndex;
+    }
+
+    /**
+     * Enables indexing of uploaded files by content hash. Content of files uploaded from {@link Path} is hashed while
+     * streaming and recorded in the index, which is then used by {@link #uploadDeduplicated(Path, UUID, String)}.
+     *
+     * @param fileHashIndex file hash index or null to disable indexing
+     */
+    public void setFileHashIndex(FileHashIndex fileHashIndex) {
+        this.fileHashIndex = fileHashIndex;
+    }
+
+    public FileResourceCache getDownloadCache() {
+        return downloadCache;
+    }
+
+    /**
+     * Enables caching of file resources returned by {@link #download(UUID, UUID)} on local disk.
+     *
+     * @param downloadCache download cache or null to disable caching
+     */
+    public void setDownloadCache(FileResourceCache downloadCache) {
+        this.downloadCache = downloadCache;
+    }
+
+    public int getBulkParallelism() {
+        return bulkParallelism;
+    }
+
+    /**
+     * Sets maximum number of requests that {@link #createFileResourcesFromExisting(Collection, UUID)} keeps in flight
+     * at once.
+     *
+     * @param bulkParallelism maximum number of concurrent bulk requests
+     */
+    public void setBulkParallelism(int bulkParallelism) {
+        Assert.isTrue(bulkParallelism > 0, "bulk parallelism must be greater than zero");
+        this.bulkParallelism = bulkParallelism;
+    }
+
+    /**
+     * Sets request factory used by {@link #upload(Path, UUID, String, TransferProgressListener)} instead of the one
+     * derived from rest template. Given factory should not buffer request body, e.g. {@link
+     * SimpleClientHttpRequestFactory} configured with {@code setBufferRequestBody(false)} and the same proxy and
+     * timeouts as request factory of rest template.
+     *
+     * @param streamingRequestFactory non-buffering request factory or null to derive it from rest template
+     */
+    public void setStreamingRequestFactory(ClientHttpRequestFactory streamingRequestFactory) {
+        this.streamingRequestFactory = streamingRequestFactory;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        Assert.notNull(executor, "executor must be provided");
+        this.executor = executor;
+    }
+
     public PagedGridResponse<FileResource> list(CompositeFilterRequest filterRequest, Pageable pageable) {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(baseUrl).path(FILE_PATH);
 
@@ -104,9 +231,238 @@ public class FileRepository {
         return UUID.fromString(response);
     }
 
+    /**
+     * Convenience method for file resource upload from file without progress reporting. See {@link #upload(Path, UUID,
+     * String, TransferProgressListener)} for details.
+     *
+     * @param file           uploaded file
+     * @param infoSystemUuid UUID of associated info system or null
+     * @param contentType    MIME content type
+     * @return uploaded file resource UUID
+     * @throws IOException when file can not be read
+     */
+    public UUID upload(Path file, UUID infoSystemUuid, String contentType) throws IOException {
+        return upload(file, infoSystemUuid, contentType, null);
+    }
+
+    /**
+     * Uploads file to RIHA-Storage streaming multipart body straight from file channel. Length of multipart body is
+     * known in advance, so request is sent with Content-Length instead of being buffered or chunked, and file content
+     * passes through single bounded buffer. File name of uploaded file resource is the name of the file.
+     * <p>Request body is streamed when rest template uses {@link HttpComponentsClientHttpRequestFactory} or when
+     * streaming request factory is {@link #setStreamingRequestFactory(ClientHttpRequestFactory) set explicitly}, other
+     * request factories may buffer it. Rest template with request interceptors is not supported.</p>
+     *
+     * @param file             uploaded file
+     * @param infoSystemUuid   UUID of associated info system or null
+     * @param contentType      MIME content type
+     * @param progressListener listener of upload progress or null
+     * @return uploaded file resource UUID
+     * @throws IOException when file can not be read
+     */
+    public UUID upload(Path file, UUID infoSystemUuid, String contentType, TransferProgressListener progressListener)
+            throws IOException {
+        Assert.notNull(file, "uploaded file must be defined");
+        Assert.hasText(contentType, "uploaded file content type must be defined");
+
+        FileHashIndex index = fileHashIndex;
+        if (index == null || infoSystemUuid == null) {
+            return uploadFile(file, infoSystemUuid, contentType, progressListener, null);
+        }
+
+        MessageDigest digest = createContentDigest();
+        UUID fileUuid = uploadFile(file, infoSystemUuid, contentType, progressListener, digest);
+        index.put(toIndexKey(digest, file, contentType), fileUuid, infoSystemUuid);
+        return fileUuid;
+    }
+
+    /**
+     * <p>Uploads file unless file with the same content was already uploaded. Content of the file is hashed and looked
+     * up in {@link #setFileHashIndex(FileHashIndex) file hash index}. When found, stored file resource is copied to
+     * info system with {@link #createFileResourceFromExisting(UUID, UUID, UUID)} instead of sending the content again.
+     * Otherwise file is uploaded and indexed.</p>
+     * <p>Copied file resource keeps file name and content type of the stored one, therefore only file resource
+     * uploaded with the same file name and content type is reused. The same content under another name or content
+     * type is uploaded and indexed separately.</p>
+     * <p>When indexed file resource does not exist anymore, its index entry is removed and file is uploaded.</p>
+     *
+     * @param file           uploaded file
+     * @param infoSystemUuid UUID of associated info system
+     * @param contentType    MIME content type
+     * @return UUID of uploaded or copied file resource
+     * @throws IOException when file can not be read
+     */
+    public UUID uploadDeduplicated(Path file, UUID infoSystemUuid, String contentType) throws IOException {
+        Assert.notNull(file, "uploaded file must be defined");
+        Assert.notNull(infoSystemUuid, "info system UUID must be defined");
+        Assert.hasText(contentType, "uploaded file content type must be defined");
+        FileHashIndex index = fileHashIndex;
+        Assert.state(index != null, "file hash index is not configured");
+
+        String hash = hash(file, contentType);
+        FileHashIndex.Entry existing = index.get(hash);
+        if (existing != null) {
+            try {
+                return toCopiedFileUuid(existing.getFileUuid(), createFileResourceFromExisting(
+                        existing.getFileUuid(), existing.getInfoSystemUuid(), infoSystemUuid));
+            } catch (StorageClientException | HttpClientErrorException | IllegalStateException e) {
+                // Indexed file resource can not be copied, content is uploaded again
+            }
+            index.remove(hash);
+        }
+
+        UUID fileUuid = uploadFile(file, infoSystemUuid, contentType, null, null);
+        index.put(hash, fileUuid, infoSystemUuid);
+        return fileUuid;
+    }
+
+    private UUID uploadFile(Path file, UUID infoSystemUuid, String contentType,
+                            TransferProgressListener progressListener, MessageDigest digest) throws IOException {
+
+        String boundary = "riha-" + UUID.randomUUID();
+        byte[] head = ("--" + boundary + CRLF
+                + "Content-Disposition: form-data; name=\"file\"; filename=\""
+                + sanitizeFileName(file.getFileName().toString()) + "\"" + CRLF
+                + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                + CRLF).getBytes(StandardCharsets.UTF_8);
+        byte[] tail = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.UTF_8);
+
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(baseUrl).path(FILE_PATH);
+        if (infoSystemUuid != null) {
+            uriBuilder.queryParam("infoSystemUuid", infoSystemUuid.toString());
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+
+            ClientHttpRequest request = getStreamingRequestFactory()
+                    .createRequest(uriBuilder.build(false).toUri(), HttpMethod.POST);
+            request.getHeaders().setContentType(MediaType.parseMediaType(
+                    MULTIPART_FORM_DATA_VALUE + ";boundary=" + boundary));
+            request.getHeaders().setContentLength(head.length + fileSize + tail.length);
+
+            StreamingHttpOutputMessage.Body body = outputStream -> {
+                outputStream.write(head);
+                writeContent(channel, fileSize, outputStream, progressListener, digest);
+                outputStream.write(tail);
+            };
+            if (request instanceof StreamingHttpOutputMessage) {
+                ((StreamingHttpOutputMessage) request).setBody(body);
+            } else {
+                body.writeTo(request.getBody());
+            }
+
+            try (ClientHttpResponse response = request.execute()) {
+                ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+                if (errorHandler.hasError(response)) {
+                    errorHandler.handleError(response);
+                }
+                return UUID.fromString(StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8).trim());
+            }
+        }
+    }
+
+    private static void writeContent(FileChannel channel, long size, OutputStream outputStream,
+                                     TransferProgressListener progressListener, MessageDigest digest)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(UPLOAD_BUFFER_SIZE, Math.max(size, 1)));
+        long position = 0;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("File was truncated during upload");
+            }
+            outputStream.write(buffer.array(), 0, read);
+            if (digest != null) {
+                digest.update(buffer.array(), 0, read);
+            }
+            position += read;
+            if (progressListener != null) {
+                progressListener.onProgress(position, size);
+            }
+        }
+    }
+
+    private static String hash(Path file, String contentType) throws IOException {
+        MessageDigest digest = createContentDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(UPLOAD_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toIndexKey(digest, file, contentType);
+    }
+
+    /**
+     * Completes content digest with file name and content type, that are kept by copied file resource, and returns it
+     * as key of file hash index.
+     */
+    private static String toIndexKey(MessageDigest contentDigest, Path file, String contentType) {
+        contentDigest.update((byte) 0);
+        contentDigest.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+        contentDigest.update((byte) 0);
+        contentDigest.update(contentType.getBytes(StandardCharsets.UTF_8));
+        return toHex(contentDigest.digest());
+    }
+
+    private static MessageDigest createContentDigest() {
+        try {
+            return MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(CONTENT_HASH_ALGORITHM + " is not supported", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Request factory that does not buffer request body. Explicitly set streaming request factory is used when
+     * present, otherwise non-buffering sibling of {@link HttpComponentsClientHttpRequestFactory} that shares its pooled
+     * HTTP client. Other request factories of rest template are used as is, since their settings are not exposed.
+     *
+     * @throws IllegalStateException when rest template has interceptors, since they buffer whole request body
+     */
+    ClientHttpRequestFactory getStreamingRequestFactory() {
+        ClientHttpRequestFactory requestFactory = restTemplate.getRequestFactory();
+        Assert.state(!(requestFactory instanceof InterceptingClientHttpRequestFactory),
+                     "Streaming upload is not supported by rest template with request interceptors");
+
+        ClientHttpRequestFactory streaming = streamingRequestFactory;
+        if (streaming != null) {
+            return streaming;
+        }
+        if (!(requestFactory instanceof HttpComponentsClientHttpRequestFactory)) {
+            return requestFactory;
+        }
+
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(
+                ((HttpComponentsClientHttpRequestFactory) requestFactory).getHttpClient());
+        factory.setBufferRequestBody(false);
+        streamingRequestFactory = factory;
+        return factory;
+    }
+
+    /**
+     * Removes line breaks and quotes from file name, so that file name can not break out of quoted filename parameter
+     * of Content-Disposition header or inject headers into multipart body. Other characters are sent as is.
+     */
+    private static String sanitizeFileName(String fileName) {
+        return fileName.replaceAll("[\\r\\n\"]", "");
+    }
+
     private HttpEntity<InputStreamResource> createFilePart(InputStream inputStream, String fileName,
                                                            String contentType) {
-        InputStreamResource part = new MultipartInputStreamFileResource(inputStream, fileName);
+        InputStreamResource part = new MultipartInputStreamFileResource(inputStream, sanitizeFileName(fileName));
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.CONTENT_TYPE, contentType);
@@ -128,6 +484,8 @@ public class FileRepository {
     /**
      * Downloads single file resource from RIHA-Storage. While info system UUID is optional and can be left null, when
      * provided will match file resource exactly by file resource UUID and info system UUID.
+     * <p>When {@link #setDownloadCache(FileResourceCache) download cache} is set, file resource is served from the
+     * cache or downloaded to it first.</p>
      *
      * @param fileUuid       UUID of file resource
      * @param infoSystemUuid UUID of info system or null if exact matching not required
@@ -137,6 +495,258 @@ public class FileRepository {
     public ResponseEntity download(UUID fileUuid, UUID infoSystemUuid) throws IOException {
         Assert.notNull(fileUuid, "downloaded file UUID must be provided");
 
+        FileResourceCache cache = downloadCache;
+        if (cache != null) {
+            return downloadCached(cache, fileUuid, infoSystemUuid);
+        }
+
+        ClientHttpRequest request = restTemplate.getRequestFactory()
+                .createRequest(createDownloadUri(fileUuid, infoSystemUuid), HttpMethod.GET);
+        ClientHttpResponse response = request.execute();
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getRawStatusCode());
+        if (response.getRawStatusCode() != HTTP_OK) {
+            response.close();
+            return builder.build();
+        }
+
+        copyHeaderIfPresent(response, builder, HttpHeaders.CONTENT_LENGTH);
+        copyHeaderIfPresent(response, builder, HttpHeaders.CONTENT_TYPE);
+        copyHeaderIfPresent(response, builder, HttpHeaders.CONTENT_DISPOSITION);
+
+        return builder.body(new InputStreamResource(response.getBody()));
+    }
+
+    private ResponseEntity<InputStreamResource> downloadCached(FileResourceCache cache, UUID fileUuid,
+                                                               UUID infoSystemUuid)
+            throws IOException {
+        ResponseEntity<InputStreamResource> cached = cache.get(fileUuid, infoSystemUuid);
+        if (cached != null) {
+            return cached;
+        }
+
+        Path content = cache.createTemporaryFile();
+        try {
+            ResponseEntity<Path> response = downloadTo(fileUuid, infoSystemUuid, content);
+            if (response.getStatusCode() != HttpStatus.OK) {
+                return ResponseEntity.status(response.getStatusCode()).body(null);
+            }
+            return cache.put(fileUuid, infoSystemUuid, content, response.getHeaders());
+        } finally {
+            Files.deleteIfExists(content);
+            Path partialFile = content.resolveSibling(content.getFileName() + PARTIAL_FILE_SUFFIX);
+            Files.deleteIfExists(partialFile);
+            Files.deleteIfExists(getValidatorFile(partialFile));
+        }
+    }
+
+    /**
+     * <p>Downloads file resource straight to target file. Response body is read into single reused buffer and written
+     * to file channel, so content is never held in memory as a whole. Size of written content is verified against
+     * Content-Length of the response.</p>
+     * <p>Content is written to partial file next to the target and moved to target only when complete. Interrupted
+     * transfer is resumed from the size of partial file with HTTP Range request, both on retry within this call and on
+     * later call for the same target. Range is conditional on ETag or Last-Modified of the response the partial file
+     * was started with, kept in a validator file next to it. When server ignores Range, file resource has changed or
+     * no validator is known, download starts over. Failed attempts are retried with increasing delay.</p>
+     *
+     * @param fileUuid       UUID of file resource
+     * @param infoSystemUuid UUID of info system or null if exact matching not required
+     * @param target         target file, replaced when exists
+     * @return response entity with target path and file resource headers or status of failed response without body
+     * @throws IOException when content can not be written or transfer fails repeatedly
+     */
+    public ResponseEntity<Path> downloadTo(UUID fileUuid, UUID infoSystemUuid, Path target) throws IOException {
+        Assert.notNull(fileUuid, "downloaded file UUID must be provided");
+        Assert.notNull(target, "target path must be provided");
+
+        URI uri = createDownloadUri(fileUuid, infoSystemUuid);
+        Path partialFile = target.resolveSibling(target.getFileName() + PARTIAL_FILE_SUFFIX);
+        Path validatorFile = getValidatorFile(partialFile);
+        byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+
+        for (int attempt = 1; ; attempt++) {
+            long position = Files.exists(partialFile) ? Files.size(partialFile) : 0;
+            String validator = position > 0 && Files.exists(validatorFile)
+                    ? new String(Files.readAllBytes(validatorFile), StandardCharsets.UTF_8)
+                    : null;
+            try {
+                ResponseEntity<Path> response = downloadRemainder(uri, partialFile, validator != null ? position : 0,
+                                                                  validator, buffer);
+                if (response.getStatusCode() == HttpStatus.OK) {
+                    moveReplacing(partialFile, target);
+                    Files.deleteIfExists(validatorFile);
+                    return ResponseEntity.ok().headers(response.getHeaders()).body(target);
+                }
+                return response;
+            } catch (IOException e) {
+                if (attempt >= DOWNLOAD_MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+            waitBeforeRetry(attempt);
+        }
+    }
+
+    /**
+     * Waits before next attempt of failed transfer, delay doubles with every attempt.
+     *
+     * @param attempt number of failed attempt
+     * @throws InterruptedIOException when interrupted while waiting
+     */
+    private static void waitBeforeRetry(int attempt) throws InterruptedIOException {
+        try {
+            Thread.sleep(DOWNLOAD_RETRY_DELAY_MILLIS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry download");
+        }
+    }
+
+    /**
+     * <p>Downloads file resource to target file fetching byte ranges concurrently. First range tells total size of file
+     * resource, remaining ranges of {@link ParallelDownloadSettings#getChunkSize() chunk size} are then downloaded by
+     * at most {@link ParallelDownloadSettings#getConcurrency() concurrency} workers and written to their positions of
+     * the file. Ranges are downloaded on {@link ParallelDownloadSettings#getExecutor() executor of settings} or on
+     * {@link #getExecutor() repository executor} when not set. Failed range is retried with increasing delay, file is
+     * moved to target only when all ranges are complete.</p>
+     * <p>When server ignores Range and responds with whole content, it is written as single stream. When server does
+     * not tell total size, download continues sequentially as in {@link #downloadTo(UUID, UUID, Path)}.</p>
+     *
+     * @param fileUuid       UUID of file resource
+     * @param infoSystemUuid UUID of info system or null if exact matching not required
+     * @param target         target file, replaced when exists
+     * @param settings       parallel download settings or null for defaults
+     * @return response entity with target path and file resource headers or status of failed response without body
+     * @throws IOException when content can not be written or range download fails repeatedly
+     */
+    public ResponseEntity<Path> downloadTo(UUID fileUuid, UUID infoSystemUuid, Path target,
+                                           ParallelDownloadSettings settings) throws IOException {
+        Assert.notNull(fileUuid, "downloaded file UUID must be provided");
+        Assert.notNull(target, "target path must be provided");
+        ParallelDownloadSettings downloadSettings = settings != null ? settings : new ParallelDownloadSettings();
+        Assert.isTrue(downloadSettings.getConcurrency() > 0, "concurrency must be greater than zero");
+        Assert.isTrue(downloadSettings.getChunkSize() > 0, "chunk size must be greater than zero");
+
+        URI uri = createDownloadUri(fileUuid, infoSystemUuid);
+        Path partialFile = target.resolveSibling(target.getFileName() + PARTIAL_FILE_SUFFIX);
+        long chunkSize = downloadSettings.getChunkSize();
+
+        ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+        request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-" + (chunkSize - 1));
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        long totalSize;
+        long firstChunkSize;
+        try (ClientHttpResponse response = request.execute()) {
+            int status = response.getRawStatusCode();
+            if (status != HTTP_OK && status != HttpStatus.PARTIAL_CONTENT.value()) {
+                return ResponseEntity.status(status).body(null);
+            }
+            copyHeaderIfPresent(response, builder, HttpHeaders.CONTENT_TYPE);
+            copyHeaderIfPresent(response, builder, HttpHeaders.CONTENT_DISPOSITION);
+
+            if (status == HttpStatus.PARTIAL_CONTENT.value()) {
+                if (getRangeStart(response) != 0) {
+                    throw new IOException("First partial response does not start at 0");
+                }
+                totalSize = getRangeTotal(response);
+            } else {
+                totalSize = response.getHeaders().getContentLength();
+            }
+
+            try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                firstChunkSize = transfer(response.getBody(), channel, 0, new byte[TRANSFER_BUFFER_SIZE]);
+            }
+
+            long contentLength = response.getHeaders().getContentLength();
+            if (contentLength >= 0 && firstChunkSize != contentLength) {
+                Files.delete(partialFile);
+                throw new IOException("Downloaded " + firstChunkSize + " bytes of file resource while "
+                                              + contentLength + " bytes were expected");
+            }
+
+            if (status == HTTP_OK) {
+                moveReplacing(partialFile, target);
+                return builder.contentLength(firstChunkSize).body(target);
+            }
+        }
+
+        if (totalSize < 0) {
+            return downloadTo(fileUuid, infoSystemUuid, target);
+        }
+
+        List<Long> chunkStarts = new ArrayList<>();
+        for (long start = firstChunkSize; start < totalSize; start += chunkSize) {
+            chunkStarts.add(start);
+        }
+
+        BulkOperationResult<Long, Long> result;
+        try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.WRITE)) {
+            result = BulkOperations.execute(
+                    chunkStarts,
+                    start -> downloadChunk(uri, channel, start, Math.min(start + chunkSize, totalSize) - 1),
+                    downloadSettings.getConcurrency(),
+                    downloadSettings.getExecutor() != null ? downloadSettings.getExecutor() : executor);
+        }
+
+        if (!result.isSuccessful()) {
+            Files.delete(partialFile);
+            RuntimeException failure = result.getFailed().values().iterator().next();
+            if (failure instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) failure).getCause();
+            }
+            throw failure;
+        }
+
+        moveReplacing(partialFile, target);
+        return builder.contentLength(totalSize).body(target);
+    }
+
+    /**
+     * Downloads single byte range to its position of the file retrying failed attempts.
+     *
+     * @return number of written bytes
+     */
+    private long downloadChunk(URI uri, FileChannel channel, long first, long last) {
+        long expectedSize = last - first + 1;
+        byte[] buffer = new byte[(int) Math.min(TRANSFER_BUFFER_SIZE, expectedSize)];
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+                request.getHeaders().set(HttpHeaders.RANGE, "bytes=" + first + "-" + last);
+
+                try (ClientHttpResponse response = request.execute()) {
+                    if (response.getRawStatusCode() != HttpStatus.PARTIAL_CONTENT.value()
+                            || getRangeStart(response) != first) {
+                        throw new IOException("Unexpected response to range " + first + "-" + last + ": "
+                                                      + response.getRawStatusCode());
+                    }
+
+                    long size = transfer(response.getBody(), channel, first, buffer);
+                    if (size != expectedSize) {
+                        throw new IOException("Downloaded " + size + " bytes of range " + first + "-" + last);
+                    }
+                    return size;
+                }
+            } catch (IOException e) {
+                if (attempt >= DOWNLOAD_MAX_ATTEMPTS) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            try {
+                waitBeforeRetry(attempt);
+            } catch (InterruptedIOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private URI createDownloadUri(UUID fileUuid, UUID infoSystemUuid) {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(baseUrl)
                 .path(FILE_PATH)
                 .path("/")
@@ -146,18 +756,129 @@ public class FileRepository {
             uriBuilder.queryParam("infoSystemUuid", infoSystemUuid.toString());
         }
 
-        HttpURLConnection conn = (HttpURLConnection) new URL(uriBuilder.toUriString()).openConnection();
+        return uriBuilder.build(false).toUri();
+    }
 
-        ResponseEntity.BodyBuilder builder = ResponseEntity.status(conn.getResponseCode());
-        if (conn.getResponseCode() != HTTP_OK) {
-            return builder.build();
+    /**
+     * Downloads content starting from given position to partial file. Returns response entity of OK status when partial
+     * file is complete.
+     *
+     * @param validator ETag or Last-Modified of partial file content, required when position is not 0
+     */
+    private ResponseEntity<Path> downloadRemainder(URI uri, Path partialFile, long position, String validator,
+                                                   byte[] buffer) throws IOException {
+        ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+        if (position > 0) {
+            request.getHeaders().set(HttpHeaders.RANGE, "bytes=" + position + "-");
+            request.getHeaders().set(HttpHeaders.IF_RANGE, validator);
         }
 
-        copyHeaderIfPresent(conn, builder, HttpHeaders.CONTENT_LENGTH);
-        copyHeaderIfPresent(conn, builder, HttpHeaders.CONTENT_TYPE);
-        copyHeaderIfPresent(conn, builder, HttpHeaders.CONTENT_DISPOSITION);
+        try (ClientHttpResponse response = request.execute()) {
+            int status = response.getRawStatusCode();
+            if (status == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value() && position > 0) {
+                Files.delete(partialFile);
+                throw new IOException("Partial file " + partialFile + " does not match file resource");
+            }
+            if (status != HTTP_OK && status != HttpStatus.PARTIAL_CONTENT.value()) {
+                return ResponseEntity.status(status).body(null);
+            }
+
+            long startPosition = status == HTTP_OK ? 0 : getRangeStart(response);
+            if (startPosition != 0 && startPosition != position) {
+                throw new IOException("Partial response starts at " + startPosition + " instead of " + position);
+            }
+            if (startPosition == 0) {
+                writeValidator(getValidatorFile(partialFile), response);
+            }
+            long contentLength = response.getHeaders().getContentLength();
+            long expectedSize = contentLength >= 0 ? startPosition + contentLength : -1;
+
+            long size;
+            try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.WRITE)) {
+                channel.truncate(startPosition);
+                size = startPosition + transfer(response.getBody(), channel, startPosition, buffer);
+            }
+
+            if (expectedSize >= 0 && size != expectedSize) {
+                throw new IOException("Downloaded " + size + " bytes of file resource while " + expectedSize
+                                              + " bytes were expected");
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentLength(size);
+            copyHeaderIfPresent(response, builder, HttpHeaders.CONTENT_TYPE);
+            copyHeaderIfPresent(response, builder, HttpHeaders.CONTENT_DISPOSITION);
+            return builder.body(partialFile);
+        }
+    }
 
-        return builder.body(new InputStreamResource(conn.getInputStream()));
+    private static Path getValidatorFile(Path partialFile) {
+        return partialFile.resolveSibling(partialFile.getFileName() + VALIDATOR_FILE_SUFFIX);
+    }
+
+    /**
+     * Stores strong ETag or Last-Modified of response so that later range request can be made conditional with
+     * If-Range. Weak ETag is not allowed in If-Range.
+     */
+    private static void writeValidator(Path validatorFile, ClientHttpResponse response) throws IOException {
+        String validator = response.getHeaders().getETag();
+        if (validator == null || validator.startsWith("W/")) {
+            validator = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+        }
+
+        if (validator != null) {
+            Files.write(validatorFile, validator.getBytes(StandardCharsets.UTF_8));
+        } else {
+            Files.deleteIfExists(validatorFile);
+        }
+    }
+
+    private static long getRangeStart(ClientHttpResponse response) throws IOException {
+        return Long.parseLong(matchContentRange(response).group(1));
+    }
+
+    /**
+     * @return total size of file resource or -1 when it is unknown
+     */
+    private static long getRangeTotal(ClientHttpResponse response) throws IOException {
+        String total = matchContentRange(response).group(3);
+        return "*".equals(total) ? -1 : Long.parseLong(total);
+    }
+
+    private static Matcher matchContentRange(ClientHttpResponse response) throws IOException {
+        String contentRange = response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE);
+        Matcher matcher = contentRange != null ? CONTENT_RANGE.matcher(contentRange) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IOException("Partial response without valid Content-Range: " + contentRange);
+        }
+        return matcher;
+    }
+
+    /**
+     * Writes stream content to channel starting from given position.
+     *
+     * @param buffer transfer buffer reused by consecutive transfers of the same thread
+     * @return number of written bytes
+     */
+    private static long transfer(InputStream body, FileChannel channel, long position, byte[] buffer)
+            throws IOException {
+        long written = 0;
+        int read;
+        while ((read = body.read(buffer)) >= 0) {
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                written += channel.write(chunk, position + written);
+            }
+        }
+        return written;
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     public String createFileResourceFromExisting(UUID existingFileUuid, UUID existingInfoSystemUuid, UUID newInfoSystemUuid) {
@@ -172,10 +893,49 @@ public class FileRepository {
         return restTemplate.postForObject(uriBuilder.toUriString(), null, String.class);
     }
 
-    private void copyHeaderIfPresent(HttpURLConnection urlConnection, ResponseEntity.BodyBuilder responseBuilder,
+    /**
+     * Creates copies of existing file resources in new info system. Every file resource is copied with its own request
+     * as in {@link #createFileResourceFromExisting(UUID, UUID, UUID)}. At most {@link #getBulkParallelism() bulk
+     * parallelism} requests run at once on the {@link #getExecutor() executor}. Failure of single copy does not stop
+     * the others.
+     *
+     * @param existingFileResources existing file resources
+     * @param newInfoSystemUuid     UUID of info system file resources are copied to
+     * @return UUID of created file resource or failure cause of every existing file resource
+     */
+    public BulkOperationResult<FileResourceReference, UUID> createFileResourcesFromExisting(
+            Collection<FileResourceReference> existingFileResources, UUID newInfoSystemUuid) {
+        Assert.notNull(existingFileResources, "existing file resources must be provided");
+        Assert.notNull(newInfoSystemUuid, "new info system UUID must be provided");
+
+        return BulkOperations.execute(
+                existingFileResources,
+                existing -> toCopiedFileUuid(existing.getFileUuid(), createFileResourceFromExisting(
+                        existing.getFileUuid(), existing.getInfoSystemUuid(), newInfoSystemUuid)),
+                bulkParallelism, executor);
+    }
+
+    /**
+     * Parses UUID of copied file resource from response of {@link #createFileResourceFromExisting(UUID, UUID, UUID)}.
+     *
+     * @throws IllegalStateException when response is empty or is not UUID
+     */
+    private static UUID toCopiedFileUuid(UUID existingFileUuid, String response) {
+        String copiedUuid = response != null ? response.trim() : "";
+        Assert.state(!copiedUuid.isEmpty(), "Empty response to copy of file resource " + existingFileUuid);
+        try {
+            return UUID.fromString(copiedUuid);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unexpected response to copy of file resource " + existingFileUuid + ": "
+                                                    + copiedUuid, e);
+        }
+    }
+
+    private void copyHeaderIfPresent(ClientHttpResponse response, ResponseEntity.BodyBuilder responseBuilder,
                                      String headerName) {
-        if (urlConnection.getHeaderField(headerName) != null) {
-            responseBuilder.header(headerName, urlConnection.getHeaderField(headerName));
+        String headerValue = response.getHeaders().getFirst(headerName);
+        if (headerValue != null) {
+            responseBuilder.header(headerName, headerValue);
         }
     }
 
@@ -0,0 +1,286 @@
+package ee.ria.riha.storage.domain;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * <p>Local disk cache of downloaded file resources keyed by file resource UUID. Total size of cached content is bounded,
+ * least recently used file resources are evicted first. Only the most recently stored file resource is kept even when
+ * it alone exceeds the bound.</p>
+ * <p>Each file resource is stored as content file and headers file. Both are written to temporary files and moved into
+ * place, headers last, so that partially written file resources are never served. Cached content is served as stream
+ * of content file, so file resources of any size are served without holding them in memory.</p>
+ * <p>Cache directory must not be shared by several caches.</p>
+ */
+public class FileResourceCache {
+
+    private static final String HEADERS_SUFFIX = ".headers";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String INFO_SYSTEM_UUID = "infoSystemUuid";
+
+    private final Path directory;
+    private final long maxSize;
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Opens cache in given directory. File resources already stored in the directory are reused, leftovers of
+     * interrupted writes are removed.
+     *
+     * @param directory cache directory, created when does not exist
+     * @param maxSize   maximum total size of cached content in bytes
+     * @throws IOException when cache directory can not be read or created
+     */
+    public FileResourceCache(Path directory, long maxSize) throws IOException {
+        Assert.notNull(directory, "cache directory must be provided");
+        Assert.isTrue(maxSize > 0, "maximum cache size must be positive");
+        this.directory = Files.createDirectories(directory);
+        this.maxSize = maxSize;
+        load();
+    }
+
+    private void load() throws IOException {
+        List<Path> headerFiles = new ArrayList<>();
+        List<Path> otherFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                (file.getFileName().toString().endsWith(HEADERS_SUFFIX) ? headerFiles : otherFiles).add(file);
+            }
+        }
+
+        // Least recently used entries are loaded first
+        headerFiles.sort(Comparator.comparing(FileResourceCache::getLastModifiedTime));
+        for (Path headersFile : headerFiles) {
+            String fileName = headersFile.getFileName().toString();
+            try {
+                UUID fileUuid = UUID.fromString(fileName.substring(0, fileName.length() - HEADERS_SUFFIX.length()));
+                Path contentFile = getContentFile(fileUuid);
+                Entry entry = new Entry(readProperties(headersFile), Files.size(contentFile));
+                entries.put(fileUuid, entry);
+                size += entry.size;
+                otherFiles.remove(contentFile);
+            } catch (IllegalArgumentException | IOException e) {
+                Files.deleteIfExists(headersFile);
+            }
+        }
+
+        for (Path file : otherFiles) {
+            Files.deleteIfExists(file);
+        }
+        evict();
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Finds cached file resource. When info system UUID is provided, file resource matches only when it was downloaded
+     * for the same info system.
+     *
+     * @param fileUuid       UUID of file resource
+     * @param infoSystemUuid UUID of info system or null if exact matching not required
+     * @return response entity with cached content and original Content-Type and Content-Disposition headers or null
+     * when file resource is not cached
+     * @throws IOException when cached content can not be read
+     */
+    public ResponseEntity<InputStreamResource> get(UUID fileUuid, UUID infoSystemUuid) throws IOException {
+        Assert.notNull(fileUuid, "file UUID must be provided");
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(fileUuid);
+        }
+        if (entry == null || infoSystemUuid != null && !infoSystemUuid.toString().equals(
+                entry.properties.getProperty(INFO_SYSTEM_UUID))) {
+            return null;
+        }
+
+        InputStream content;
+        try {
+            content = Files.newInputStream(getContentFile(fileUuid));
+        } catch (NoSuchFileException e) {
+            // Evicted concurrently
+            return null;
+        }
+
+        try {
+            Files.setLastModifiedTime(getHeadersFile(fileUuid), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Access time is only used to restore eviction order when cache is opened again
+        }
+
+        return toResponse(entry, content);
+    }
+
+    /**
+     * Creates path for downloaded content that is later stored with {@link #put(UUID, UUID, Path, HttpHeaders)}.
+     */
+    Path createTemporaryFile() {
+        return directory.resolve(UUID.randomUUID() + TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * Stores downloaded content moving it into cache and evicts least recently used file resources exceeding size
+     * bound.
+     *
+     * @param fileUuid       UUID of file resource
+     * @param infoSystemUuid UUID of info system content was downloaded for or null
+     * @param content        downloaded content created with {@link #createTemporaryFile()}
+     * @param headers        headers of file resource response
+     * @return response entity with cached content
+     * @throws IOException when content can not be stored
+     */
+    ResponseEntity<InputStreamResource> put(UUID fileUuid, UUID infoSystemUuid, Path content, HttpHeaders headers)
+            throws IOException {
+        Properties properties = new Properties();
+        setPropertyIfPresent(properties, HttpHeaders.CONTENT_TYPE, headers.getFirst(HttpHeaders.CONTENT_TYPE));
+        setPropertyIfPresent(properties, HttpHeaders.CONTENT_DISPOSITION,
+                             headers.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        setPropertyIfPresent(properties, INFO_SYSTEM_UUID, infoSystemUuid != null ? infoSystemUuid.toString() : null);
+        Entry entry = new Entry(properties, Files.size(content));
+
+        Path temporaryHeadersFile = createTemporaryFile();
+        try (Writer writer = Files.newBufferedWriter(temporaryHeadersFile, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+
+        InputStream storedContent;
+        synchronized (this) {
+            Entry previous = entries.remove(fileUuid);
+            if (previous != null) {
+                size -= previous.size;
+            }
+            move(content, getContentFile(fileUuid));
+            move(temporaryHeadersFile, getHeadersFile(fileUuid));
+            entries.put(fileUuid, entry);
+            size += entry.size;
+            evict();
+            storedContent = Files.newInputStream(getContentFile(fileUuid));
+        }
+
+        return toResponse(entry, storedContent);
+    }
+
+    private static void setPropertyIfPresent(Properties properties, String name, String value) {
+        if (value != null) {
+            properties.setProperty(name, value);
+        }
+    }
+
+    /**
+     * Removes file resource from cache.
+     *
+     * @param fileUuid UUID of file resource
+     */
+    public synchronized void remove(UUID fileUuid) {
+        Entry entry = entries.remove(fileUuid);
+        if (entry != null) {
+            size -= entry.size;
+            delete(fileUuid);
+        }
+    }
+
+    private synchronized void evict() {
+        Iterator<Map.Entry<UUID, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && entries.size() > 1) {
+            Map.Entry<UUID, Entry> eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getValue().size;
+            delete(eldest.getKey());
+        }
+    }
+
+    private void delete(UUID fileUuid) {
+        try {
+            Files.deleteIfExists(getHeadersFile(fileUuid));
+            Files.deleteIfExists(getContentFile(fileUuid));
+        } catch (IOException e) {
+            // Content file that is still being served on some platforms is removed when cache is opened again
+        }
+    }
+
+    /**
+     * @return total size of cached content in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    private Path getContentFile(UUID fileUuid) {
+        return directory.resolve(fileUuid.toString());
+    }
+
+    private Path getHeadersFile(UUID fileUuid) {
+        return directory.resolve(fileUuid + HEADERS_SUFFIX);
+    }
+
+    private static Properties readProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static ResponseEntity<InputStreamResource> toResponse(Entry entry, InputStream content) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentLength(entry.size);
+        for (String headerName : new String[]{HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_DISPOSITION}) {
+            String headerValue = entry.properties.getProperty(headerName);
+            if (headerValue != null) {
+                builder.header(headerName, headerValue);
+            }
+        }
+        return builder.body(new InputStreamResource(content));
+    }
+
+    private static class Entry {
+        private final Properties properties;
+        private final long size;
+
+        Entry(Properties properties, long size) {
+            this.properties = properties;
+            this.size = size;
+        }
+    }
+
+}
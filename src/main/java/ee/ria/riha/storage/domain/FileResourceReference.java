@@ -0,0 +1,28 @@
+package ee.ria.riha.storage.domain;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.util.UUID;
+
+/**
+ * Identifies existing file resource by its UUID and UUID of info system it belongs to.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class FileResourceReference {
+
+    private final UUID fileUuid;
+    private final UUID infoSystemUuid;
+
+    public FileResourceReference(UUID fileUuid, UUID infoSystemUuid) {
+        Assert.notNull(fileUuid, "file UUID must be provided");
+        Assert.notNull(infoSystemUuid, "info system UUID must be provided");
+        this.fileUuid = fileUuid;
+        this.infoSystemUuid = infoSystemUuid;
+    }
+
+}
@@ -1,13 +1,20 @@
 package ee.ria.riha.storage.domain;
 
+import ee.ria.riha.storage.client.BulkOperationResult;
 import ee.ria.riha.storage.client.StorageClient;
 import ee.ria.riha.storage.domain.model.MainResourceRelation;
 import ee.ria.riha.storage.util.Filterable;
 import ee.ria.riha.storage.util.Pageable;
 import ee.ria.riha.storage.util.PagedResponse;
+import ee.ria.riha.storage.util.SlicedResponse;
 import org.springframework.util.Assert;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Makes calls against RIHA-Storage and performs various operations on {@link MainResourceRelation} entities.
@@ -18,12 +25,15 @@ public class MainResourceRelationRepository implements StorageRepository<Long, M
 
     private static final String MAIN_RESOURCE_RELATION_PATH = "db/main_resource_relation";
     private static final String MAIN_RESOURCE_RELATION_VIEW_PATH = "db/main_resource_relation_view";
+    private static final String MAIN_RESOURCE_RELATION_ID_PROPERTY = "main_resource_relation_id";
 
     private StorageClient storageClient;
 
     public MainResourceRelationRepository(StorageClient storageClient) {
         Assert.notNull(storageClient, "Storage client must be provided");
         this.storageClient = storageClient;
+        this.storageClient.registerView(MAIN_RESOURCE_RELATION_PATH, MAIN_RESOURCE_RELATION_VIEW_PATH);
+        this.storageClient.registerIdProperty(MAIN_RESOURCE_RELATION_VIEW_PATH, MAIN_RESOURCE_RELATION_ID_PROPERTY);
     }
 
     @Override
@@ -36,16 +46,85 @@ public class MainResourceRelationRepository implements StorageRepository<Long, M
         return storageClient.get(MAIN_RESOURCE_RELATION_VIEW_PATH, id, MainResourceRelation.class);
     }
 
+    @Override
+    public Map<Long, MainResourceRelation> getAll(Collection<Long> ids) {
+        return storageClient.getAll(MAIN_RESOURCE_RELATION_VIEW_PATH, MAIN_RESOURCE_RELATION_ID_PROPERTY, ids,
+                MainResourceRelation.class);
+    }
+
     @Override
     public List<MainResourceRelation> find(Filterable filterable) {
         return storageClient.find(MAIN_RESOURCE_RELATION_VIEW_PATH, filterable, MainResourceRelation.class);
     }
 
+    /**
+     * Lists resources without counting total number of resources. See {@link StorageClient#slice(String, Pageable,
+     * Filterable, Class)} for details.
+     *
+     * @param pageable   paging definition
+     * @param filterable filter definition
+     * @return single page of resources with next page indicator
+     */
+    public SlicedResponse<MainResourceRelation> slice(Pageable pageable, Filterable filterable) {
+        return storageClient.slice(MAIN_RESOURCE_RELATION_VIEW_PATH, pageable, filterable, MainResourceRelation.class);
+    }
+
+    /**
+     * Finds resources passing them to consumer one by one as they are decoded from storage response. See {@link
+     * StorageClient#find(String, Pageable, Filterable, Class, Consumer)} for details.
+     *
+     * @param filterable filter definition
+     * @param consumer   consumer of found resources
+     * @return number of found resources
+     */
+    public long find(Filterable filterable, Consumer<? super MainResourceRelation> consumer) {
+        return storageClient.find(MAIN_RESOURCE_RELATION_VIEW_PATH, null, filterable, MainResourceRelation.class,
+                consumer);
+    }
+
+    @Override
+    public CompletableFuture<PagedResponse<MainResourceRelation>> listAsync(Pageable pageable, Filterable filterable) {
+        return storageClient.async().list(MAIN_RESOURCE_RELATION_VIEW_PATH, pageable, filterable,
+                MainResourceRelation.class);
+    }
+
+    @Override
+    public CompletableFuture<MainResourceRelation> getAsync(Long id) {
+        return storageClient.async().get(MAIN_RESOURCE_RELATION_VIEW_PATH, id, MainResourceRelation.class);
+    }
+
+    @Override
+    public CompletableFuture<List<MainResourceRelation>> findAsync(Filterable filterable) {
+        return storageClient.async().find(MAIN_RESOURCE_RELATION_VIEW_PATH, filterable, MainResourceRelation.class);
+    }
+
+    /**
+     * Lazily streams all found resources fetching them page by page. See {@link StorageClient#stream(String,
+     * Filterable, Class, int, int)} for details.
+     *
+     * @param filterable filter definition with stable sort order
+     * @return lazy stream of found resources
+     */
+    public Stream<MainResourceRelation> stream(Filterable filterable) {
+        return storageClient.stream(MAIN_RESOURCE_RELATION_VIEW_PATH, filterable, MainResourceRelation.class);
+    }
+
     @Override
     public List<Long> add(MainResourceRelation entity) {
         return storageClient.create(MAIN_RESOURCE_RELATION_PATH, entity);
     }
 
+    /**
+     * Creates many resources with bulk requests. See {@link StorageClient#createAll(String, Collection)} for
+     * details.
+     *
+     * @param entities resource models
+     * @return list of created resource ids in order of given resources
+     */
+    public List<Long> addAll(Collection<MainResourceRelation> entities) {
+        return storageClient.createAll(MAIN_RESOURCE_RELATION_PATH, entities);
+    }
+
     @Override
     public void update(Long id, MainResourceRelation entity) {
         storageClient.update(MAIN_RESOURCE_RELATION_PATH, id, entity);
@@ -56,4 +135,25 @@ public class MainResourceRelationRepository implements StorageRepository<Long, M
         storageClient.remove(MAIN_RESOURCE_RELATION_PATH, id);
     }
 
+    /**
+     * Updates many resources with bounded parallelism. See {@link StorageClient#updateAll(String, Map)} for details.
+     *
+     * @param entities resource models by ids
+     * @return outcome of update of every resource
+     */
+    public BulkOperationResult<Long, Long> updateAll(Map<Long, MainResourceRelation> entities) {
+        return storageClient.updateAll(MAIN_RESOURCE_RELATION_PATH, entities);
+    }
+
+    /**
+     * Removes many resources with bounded parallelism. See {@link StorageClient#removeAll(String, Collection)} for
+     * details.
+     *
+     * @param ids resource ids
+     * @return outcome of removal of every resource
+     */
+    public BulkOperationResult<Long, Long> removeAll(Collection<Long> ids) {
+        return storageClient.removeAll(MAIN_RESOURCE_RELATION_PATH, ids);
+    }
+
 }
@@ -1,14 +1,23 @@
 package ee.ria.riha.storage.domain;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import ee.ria.riha.storage.client.ScanProgress;
+import ee.ria.riha.storage.client.ScanSettings;
 import ee.ria.riha.storage.client.StorageClient;
 import ee.ria.riha.storage.domain.model.MainResource;
 import ee.ria.riha.storage.util.Filterable;
 import ee.ria.riha.storage.util.Pageable;
 import ee.ria.riha.storage.util.PagedResponse;
+import ee.ria.riha.storage.util.SeekResponse;
+import ee.ria.riha.storage.util.SlicedResponse;
 import org.springframework.util.Assert;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Makes calls against RIHA-Storage and performs translation between main_resource resources and MainResource entities
@@ -19,12 +28,15 @@ public class MainResourceRepository implements StorageRepository<Long, MainResou
 
     private static final String MAIN_RESOURCE_PATH = "db/main_resource";
     private static final String MAIN_RESOURCE_VIEW_PATH = "db/main_resource_view";
+    private static final String MAIN_RESOURCE_ID_PROPERTY = "main_resource_id";
 
     private final StorageClient storageClient;
 
     public MainResourceRepository(StorageClient storageClient) {
         Assert.notNull(storageClient, "Storage client must be provided");
         this.storageClient = storageClient;
+        this.storageClient.registerView(MAIN_RESOURCE_PATH, MAIN_RESOURCE_VIEW_PATH);
+        this.storageClient.registerIdProperty(MAIN_RESOURCE_PATH, MAIN_RESOURCE_ID_PROPERTY);
     }
 
     @Override
@@ -37,11 +49,94 @@ public class MainResourceRepository implements StorageRepository<Long, MainResou
         return storageClient.get(MAIN_RESOURCE_PATH, id, MainResource.class);
     }
 
+    @Override
+    public Map<Long, MainResource> getAll(Collection<Long> ids) {
+        return storageClient.getAll(MAIN_RESOURCE_PATH, MAIN_RESOURCE_ID_PROPERTY, ids, MainResource.class);
+    }
+
     @Override
     public List<MainResource> find(Filterable filterable) {
         return storageClient.find(MAIN_RESOURCE_VIEW_PATH, filterable, MainResource.class);
     }
 
+    /**
+     * Lists resources without counting total number of resources. See {@link StorageClient#slice(String, Pageable,
+     * Filterable, Class)} for details.
+     *
+     * @param pageable   paging definition
+     * @param filterable filter definition
+     * @return single page of resources with next page indicator
+     */
+    public SlicedResponse<MainResource> slice(Pageable pageable, Filterable filterable) {
+        return storageClient.slice(MAIN_RESOURCE_VIEW_PATH, pageable, filterable, MainResource.class);
+    }
+
+    /**
+     * Lists resources in order of ids with keyset pagination. See {@link StorageClient#seek(String, String, Filterable,
+     * String, int, Class)} for details.
+     *
+     * @param filterable        filter definition, its sort is ignored
+     * @param continuationToken token of previous page or null for the first page
+     * @param size              maximum number of resources in page
+     * @return single page of resources with continuation token of the next page
+     */
+    public SeekResponse<MainResource> seek(Filterable filterable, String continuationToken, int size) {
+        return storageClient.seek(MAIN_RESOURCE_VIEW_PATH, MAIN_RESOURCE_ID_PROPERTY, filterable, continuationToken,
+                size, MainResource.class);
+    }
+
+    /**
+     * Scans all found resources fetching id ranges concurrently. See {@link StorageClient#scan(String, String,
+     * Filterable, ScanSettings, Class, Consumer)} for details.
+     *
+     * @param filterable filter definition
+     * @param settings   scan settings or null for defaults
+     * @param consumer   thread safe consumer of found resources
+     * @return final progress of the scan
+     */
+    public ScanProgress scan(Filterable filterable, ScanSettings settings, Consumer<? super MainResource> consumer) {
+        return storageClient.scan(MAIN_RESOURCE_VIEW_PATH, MAIN_RESOURCE_ID_PROPERTY, filterable, settings,
+                MainResource.class, consumer);
+    }
+
+    /**
+     * Finds resources passing them to consumer one by one as they are decoded from storage response. See {@link
+     * StorageClient#find(String, Pageable, Filterable, Class, Consumer)} for details.
+     *
+     * @param filterable filter definition
+     * @param consumer   consumer of found resources
+     * @return number of found resources
+     */
+    public long find(Filterable filterable, Consumer<? super MainResource> consumer) {
+        return storageClient.find(MAIN_RESOURCE_VIEW_PATH, null, filterable, MainResource.class, consumer);
+    }
+
+    @Override
+    public CompletableFuture<PagedResponse<MainResource>> listAsync(Pageable pageable, Filterable filterable) {
+        return storageClient.async().list(MAIN_RESOURCE_VIEW_PATH, pageable, filterable, MainResource.class);
+    }
+
+    @Override
+    public CompletableFuture<MainResource> getAsync(Long id) {
+        return storageClient.async().get(MAIN_RESOURCE_PATH, id, MainResource.class);
+    }
+
+    @Override
+    public CompletableFuture<List<MainResource>> findAsync(Filterable filterable) {
+        return storageClient.async().find(MAIN_RESOURCE_VIEW_PATH, filterable, MainResource.class);
+    }
+
+    /**
+     * Lazily streams all found resources fetching them page by page. See {@link StorageClient#stream(String,
+     * Filterable, Class, int, int)} for details.
+     *
+     * @param filterable filter definition with stable sort order
+     * @return lazy stream of found resources
+     */
+    public Stream<MainResource> stream(Filterable filterable) {
+        return storageClient.stream(MAIN_RESOURCE_VIEW_PATH, filterable, MainResource.class);
+    }
+
     @Override
     public List<Long> add(MainResource mainResource) {
         return storageClient.create(MAIN_RESOURCE_PATH, mainResource);
@@ -0,0 +1,34 @@
+package ee.ria.riha.storage.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of parallel ranged file resource download.
+ *
+ * @see FileRepository#downloadTo(java.util.UUID, java.util.UUID, java.nio.file.Path, ParallelDownloadSettings)
+ */
+@Getter
+@Setter
+@ToString
+public class ParallelDownloadSettings {
+
+    /**
+     * Maximum number of ranges downloaded at once
+     */
+    private int concurrency = 4;
+
+    /**
+     * Size of single range in bytes
+     */
+    private int chunkSize = 8 * 1024 * 1024;
+
+    /**
+     * Executor of range downloads, {@link FileRepository#getExecutor() file repository executor} is used when not set
+     */
+    private Executor executor;
+
+}
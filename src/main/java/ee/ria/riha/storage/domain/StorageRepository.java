@@ -1,10 +1,16 @@
 package ee.ria.riha.storage.domain;
 
+import ee.ria.riha.storage.client.Futures;
+import ee.ria.riha.storage.client.StorageExecutors;
 import ee.ria.riha.storage.util.Filterable;
 import ee.ria.riha.storage.util.Pageable;
 import ee.ria.riha.storage.util.PagedResponse;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Performs translation between RIHA-Storage resources and concrete entities
@@ -30,6 +36,24 @@ public interface StorageRepository<K, T> {
      */
     T get(K id);
 
+    /**
+     * Retrieve resources by their ids (primary keys) using bulk requests. Default implementation retrieves resources
+     * one by one with {@link #get(Object)}.
+     *
+     * @param ids resource primary keys
+     * @return found resources by their ids
+     */
+    default Map<K, T> getAll(Collection<K> ids) {
+        Map<K, T> found = new LinkedHashMap<>();
+        for (K id : ids) {
+            T entity = get(id);
+            if (entity != null) {
+                found.put(id, entity);
+            }
+        }
+        return found;
+    }
+
     /**
      * Find resource applying filtering and sorting
      *
@@ -38,6 +62,40 @@ public interface StorageRepository<K, T> {
      */
     List<T> find(Filterable filterable);
 
+    /**
+     * Asynchronous variant of {@link #list(Pageable, Filterable)}. Default implementation runs synchronous variant on
+     * {@link StorageExecutors#defaultExecutor() default executor}.
+     *
+     * @param pageable   paging definition
+     * @param filterable filter definition
+     * @return future of paged and filtered list of resources
+     */
+    default CompletableFuture<PagedResponse<T>> listAsync(Pageable pageable, Filterable filterable) {
+        return Futures.supplyAsync(() -> list(pageable, filterable), StorageExecutors.defaultExecutor());
+    }
+
+    /**
+     * Asynchronous variant of {@link #get(Object)}. Default implementation runs synchronous variant on {@link
+     * StorageExecutors#defaultExecutor() default executor}.
+     *
+     * @param id resource primary key
+     * @return future of single resource
+     */
+    default CompletableFuture<T> getAsync(K id) {
+        return Futures.supplyAsync(() -> get(id), StorageExecutors.defaultExecutor());
+    }
+
+    /**
+     * Asynchronous variant of {@link #find(Filterable)}. Default implementation runs synchronous variant on {@link
+     * StorageExecutors#defaultExecutor() default executor}.
+     *
+     * @param filterable filter definition
+     * @return future of all found resources
+     */
+    default CompletableFuture<List<T>> findAsync(Filterable filterable) {
+        return Futures.supplyAsync(() -> find(filterable), StorageExecutors.defaultExecutor());
+    }
+
     /**
      * Creates resource
      *
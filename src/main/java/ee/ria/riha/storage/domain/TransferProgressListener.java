@@ -0,0 +1,16 @@
+package ee.ria.riha.storage.domain;
+
+/**
+ * Receives progress of file resource transfer.
+ */
+public interface TransferProgressListener {
+
+    /**
+     * Called every time next block of content is transferred.
+     *
+     * @param transferredBytes number of content bytes transferred so far
+     * @param totalBytes       total number of content bytes
+     */
+    void onProgress(long transferredBytes, long totalBytes);
+
+}
@@ -1,5 +1,8 @@
 package ee.ria.riha.storage.domain.model;
 
+import ee.ria.riha.storage.util.PooledString;
+import ee.ria.riha.storage.util.ViewProperty;
+
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -16,22 +19,41 @@ public class Comment {
     private Date creation_date;
     private String title;
     private String comment;
+    @PooledString
     private String author_name;
     private String author_personal_code;
+    @PooledString
     private String organization_name;
+    @PooledString
     private String organization_code;
+    @PooledString
     private String status;
+    @PooledString
     private String type;
+    @PooledString
     private String sub_type;
+    @PooledString
     private String resolution_type;
+    @PooledString
     private String infosystem_short_name;
+    @PooledString
     private String infosystem_full_name;
+    @ViewProperty
     private List<Comment> events;
+    @ViewProperty
     private Long last_comment_id;
+    @ViewProperty
     private Long last_comment_parent_id;
+    @ViewProperty
     private Date last_comment_creation_date;
+    @ViewProperty
+    @PooledString
     private String last_comment_author_name;
+    @ViewProperty
+    @PooledString
     private String last_comment_organization_name;
+    @ViewProperty
+    @PooledString
     private String last_comment_organization_code;
 
     public Long getComment_id() {
@@ -1,5 +1,7 @@
 package ee.ria.riha.storage.domain.model;
 
+import ee.ria.riha.storage.util.PooledString;
+
 import java.util.UUID;
 
 /**
@@ -8,11 +10,15 @@ import java.util.UUID;
 public class FileResource {
 
     private UUID file_resource_uuid;
+    @PooledString
     private String infosystem_short_name;
+    @PooledString
     private String infosystem_owner_code;
+    @PooledString
     private String infosystem_owner_name;
     private UUID infosystem_uuid;
     private String file_resource_name;
+    @PooledString
     private String infosystem_name;
 
     public UUID getFile_resource_uuid() {
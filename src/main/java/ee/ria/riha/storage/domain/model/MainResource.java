@@ -1,9 +1,15 @@
 package ee.ria.riha.storage.domain.model;
 
-import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import ee.ria.riha.storage.util.JsonPointerSet;
+import ee.ria.riha.storage.util.ViewProperty;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Map;
 
 /**
  * Model for Main_resource (Information System) entity.
@@ -14,14 +20,20 @@ public class MainResource {
 
     private Long main_resource_id;
 
-    @JsonRawValue
-    private JsonNode json_content;
+    @JsonProperty("json_content")
+    private RawJson json_content;
 
+    @ViewProperty
     private String last_positive_approval_request_type;
+    @ViewProperty
     private Date last_positive_approval_request_date;
+    @ViewProperty
     private Date last_positive_establishment_request_date;
+    @ViewProperty
     private Date last_positive_take_into_use_request_date;
+    @ViewProperty
     private Date last_positive_finalization_request_date;
+    @ViewProperty
     private boolean hasUsedSystemTypeRelations;
 
     public Long getMain_resource_id() {
@@ -32,11 +44,58 @@ public class MainResource {
         this.main_resource_id = main_resource_id;
     }
 
+    /**
+     * Parses raw json_content on first call.
+     *
+     * @return json_content tree
+     */
+    @JsonIgnore
     public JsonNode getJson_content() {
-        return json_content;
+        return json_content != null ? json_content.toTree() : null;
     }
 
+    @JsonIgnore
     public void setJson_content(JsonNode json_content) {
+        this.json_content = json_content != null ? RawJson.of(json_content) : null;
+    }
+
+    /**
+     * Extracts values of json_content at given JSON pointers without parsing whole document. See {@link
+     * RawJson#extract(JsonPointerSet)} for details.
+     *
+     * @param pointers JSON pointers, e.g. "/uuid" or "/owner/code"
+     * @return values by pointers, missing node for values that do not exist
+     */
+    public Map<String, JsonNode> extractJson_content(String... pointers) {
+        JsonPointerSet pointerSet = JsonPointerSet.compile(Arrays.asList(pointers));
+        return json_content != null
+                ? json_content.extract(pointerSet)
+                : pointerSet.extract(MissingNode.getInstance());
+    }
+
+    /**
+     * Extracts single value of json_content at given JSON pointer without parsing whole document.
+     *
+     * @param pointer JSON pointer, e.g. "/owner/code"
+     * @return value or missing node when it does not exist
+     */
+    public JsonNode getJson_content(String pointer) {
+        return extractJson_content(pointer).get(pointer);
+    }
+
+    /**
+     * Raw json_content as it was received from storage, serialized without parsing unless {@link #getJson_content()}
+     * was called.
+     *
+     * @return raw json_content
+     */
+    @JsonIgnore
+    public RawJson getRawJson_content() {
+        return json_content;
+    }
+
+    @JsonIgnore
+    public void setRawJson_content(RawJson json_content) {
         this.json_content = json_content;
     }
 
@@ -1,5 +1,7 @@
 package ee.ria.riha.storage.domain.model;
 
+import ee.ria.riha.storage.util.PooledString;
+
 import java.util.Date;
 import java.util.UUID;
 
@@ -14,11 +16,16 @@ public class MainResourceRelation {
     private Date creation_date;
     private Date modified_date;
     private UUID infosystem_uuid;
+    @PooledString
     private String infosystem_name;
+    @PooledString
     private String infosystem_short_name;
     private UUID related_infosystem_uuid;
+    @PooledString
     private String related_infosystem_name;
+    @PooledString
     private String related_infosystem_short_name;
+    @PooledString
     private String type;
 
     public Long getMain_resource_relation_id() {
@@ -0,0 +1,246 @@
+package ee.ria.riha.storage.domain.model;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import ee.ria.riha.storage.util.JsonPointerSet;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * JSON document kept as raw UTF-8 bytes as it was received from storage. Document is parsed into {@link JsonNode} tree
+ * only on first {@link #toTree()} call. Until then it is serialized by writing original bytes straight to the output.
+ * Once the tree is materialized it becomes the source of truth, so changes made to it are serialized.
+ */
+@JsonSerialize(using = RawJson.Serializer.class)
+@JsonDeserialize(using = RawJson.Deserializer.class)
+public class RawJson {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper TREE_MAPPER = new ObjectMapper(JSON_FACTORY);
+
+    private final byte[] bytes;
+    private volatile JsonNode tree;
+
+    private RawJson(byte[] bytes, JsonNode tree) {
+        this.bytes = bytes;
+        this.tree = tree;
+    }
+
+    /**
+     * Wraps raw UTF-8 encoded JSON document. Bytes are not copied and must not be changed afterwards.
+     *
+     * @param bytes UTF-8 encoded JSON document
+     * @return raw JSON
+     */
+    public static RawJson of(byte[] bytes) {
+        Assert.notNull(bytes, "bytes must be provided");
+        return new RawJson(bytes, null);
+    }
+
+    /**
+     * Wraps already parsed JSON document.
+     *
+     * @param tree JSON tree
+     * @return raw JSON backed by the tree
+     */
+    public static RawJson of(JsonNode tree) {
+        Assert.notNull(tree, "tree must be provided");
+        return new RawJson(null, tree);
+    }
+
+    /**
+     * Parses document on first call and returns the same tree afterwards.
+     *
+     * @return JSON tree
+     */
+    public JsonNode toTree() {
+        JsonNode result = tree;
+        if (result == null) {
+            synchronized (this) {
+                result = tree;
+                if (result == null) {
+                    try {
+                        result = TREE_MAPPER.readTree(bytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not parse raw JSON", e);
+                    }
+                    tree = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extracts values at given JSON pointers. Unparsed document is scanned with streaming parser that skips unrelated
+     * branches and stops once all values are found, parsed tree is queried directly.
+     *
+     * @param pointers compiled JSON pointers
+     * @return values by pointers, {@link com.fasterxml.jackson.databind.node.MissingNode} for values that do not exist
+     */
+    public Map<String, JsonNode> extract(JsonPointerSet pointers) {
+        JsonNode result = tree;
+        if (result != null) {
+            return pointers.extract(result);
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes)) {
+            return pointers.extract(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not parse raw JSON", e);
+        }
+    }
+
+    public boolean isParsed() {
+        return tree != null;
+    }
+
+    @Override
+    public String toString() {
+        JsonNode result = tree;
+        return result != null ? result.toString() : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static class Serializer extends JsonSerializer<RawJson> {
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            JsonNode tree = value.tree;
+            if (tree != null) {
+                tree.serialize(gen, serializers);
+            } else {
+                gen.writeRawValue(new RawUtf8String(value.bytes));
+            }
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<RawJson> {
+
+        /**
+         * Copies tokens of current value to UTF-8 buffer without building tree.
+         */
+        @Override
+        public RawJson deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            ByteArrayBuilder buffer = new ByteArrayBuilder();
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer, JsonEncoding.UTF8)) {
+                generator.copyCurrentStructure(p);
+            }
+            return RawJson.of(buffer.toByteArray());
+        }
+    }
+
+    /**
+     * Exposes raw bytes as already encoded string, so that UTF-8 generators write them without transcoding. Bytes are
+     * decoded only for character based generators.
+     */
+    private static class RawUtf8String implements SerializableString {
+
+        private final byte[] bytes;
+        private SerializedString decoded;
+
+        RawUtf8String(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private SerializedString decoded() {
+            if (decoded == null) {
+                decoded = new SerializedString(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return decoded;
+        }
+
+        @Override
+        public String getValue() {
+            return decoded().getValue();
+        }
+
+        @Override
+        public int charLength() {
+            return decoded().charLength();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return decoded().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return bytes;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return decoded().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return decoded().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return decoded().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + bytes.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+            return bytes.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return decoded().appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return decoded().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return decoded().putQuotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) throws IOException {
+            if (bytes.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(bytes);
+            return bytes.length;
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package ee.ria.riha.storage.util;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Builds canonical representation of {@link Filterable} so that equivalent filters produce equal keys. Filter
+ * definitions (property, operation and value triples) are ordered, field list is ordered and deduplicated. Sort is kept
+ * intact because order of sort properties is significant.
+ */
+public class CanonicalFilter {
+
+    private static final String SEPARATOR = ",";
+    private static final int FILTER_DEFINITION_SIZE = 3;
+
+    private CanonicalFilter() {
+    }
+
+    /**
+     * Canonical form of filtering, sorting and fields of given filterable.
+     *
+     * @param filterable filterable or null
+     * @return canonical key
+     */
+    public static String of(Filterable filterable) {
+        if (filterable == null) {
+            return "";
+        }
+
+        return "filter=" + canonicalFilter(filterable.getFilter())
+                + "&sort=" + normalize(filterable.getSort())
+                + "&fields=" + canonicalFields(filterable.getFields());
+    }
+
+    /**
+     * Canonical form of filter definitions. Filter definitions are ordered while their content is kept. Malformed
+     * filter is returned as is.
+     *
+     * @param filter filter string in form of property,operation,value triples
+     * @return canonical filter
+     */
+    public static String canonicalFilter(String filter) {
+        if (!StringUtils.hasText(filter)) {
+            return "";
+        }
+
+        String[] items = filter.split(SEPARATOR, -1);
+        if (items.length % FILTER_DEFINITION_SIZE != 0) {
+            return filter.trim();
+        }
+
+        List<String> definitions = new ArrayList<>(items.length / FILTER_DEFINITION_SIZE);
+        for (int i = 0; i < items.length; i += FILTER_DEFINITION_SIZE) {
+            definitions.add(items[i].trim() + SEPARATOR + items[i + 1].trim() + SEPARATOR + items[i + 2]);
+        }
+        Collections.sort(definitions);
+
+        return String.join(SEPARATOR, definitions);
+    }
+
+    /**
+     * Canonical form of field list. Fields are trimmed, deduplicated and ordered.
+     *
+     * @param fields comma separated list of fields
+     * @return canonical field list
+     */
+    public static String canonicalFields(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return "";
+        }
+
+        TreeSet<String> fieldSet = new TreeSet<>();
+        for (String field : fields.split(SEPARATOR)) {
+            if (StringUtils.hasText(field)) {
+                fieldSet.add(field.trim());
+            }
+        }
+
+        return String.join(SEPARATOR, fieldSet);
+    }
+
+    private static String normalize(String value) {
+        return StringUtils.hasText(value) ? value.trim() : "";
+    }
+
+}
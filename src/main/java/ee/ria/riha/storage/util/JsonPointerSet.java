@@ -0,0 +1,171 @@
+package ee.ria.riha.storage.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Compiled set of JSON pointers (RFC 6901) extracted from JSON document in a single streaming pass. Pointers are
+ * arranged into a trie of path segments, so parser descends only into branches that lead to requested values and skips
+ * the rest of the document. Parsing stops as soon as all requested values are found.</p>
+ * <p>Compiled sets are cached, so repeated extraction of the same pointers does not compile them again.</p>
+ */
+public class JsonPointerSet {
+
+    private static final int MAX_CACHED_SETS = 256;
+    private static final Map<List<String>, JsonPointerSet> CACHE = new ConcurrentHashMap<>();
+    private static final ObjectMapper TREE_MAPPER = new ObjectMapper();
+
+    private final List<String> pointers;
+    private final Node root = new Node();
+
+    private JsonPointerSet(List<String> pointers) {
+        this.pointers = pointers;
+        for (String pointer : pointers) {
+            add(pointer);
+        }
+    }
+
+    /**
+     * Compiles pointer set or returns cached one.
+     *
+     * @param pointers JSON pointers, e.g. "/owner/code"
+     * @return compiled pointer set
+     * @throws IllegalArgumentException when pointer is malformed
+     */
+    public static JsonPointerSet compile(Collection<String> pointers) {
+        Assert.notEmpty(pointers, "pointers must be provided");
+
+        List<String> key = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(pointers)));
+        JsonPointerSet pointerSet = CACHE.get(key);
+        if (pointerSet == null) {
+            pointerSet = new JsonPointerSet(key);
+            if (CACHE.size() >= MAX_CACHED_SETS) {
+                CACHE.clear();
+            }
+            CACHE.put(key, pointerSet);
+        }
+        return pointerSet;
+    }
+
+    private void add(String pointer) {
+        JsonPointer remaining = JsonPointer.compile(pointer);
+        Node node = root;
+        while (!remaining.matches()) {
+            node = node.children.computeIfAbsent(remaining.getMatchingProperty(), segment -> new Node());
+            remaining = remaining.tail();
+        }
+        node.pointers.add(pointer);
+    }
+
+    /**
+     * Resolves pointers against already parsed tree.
+     *
+     * @param tree JSON tree
+     * @return values by pointers in order of compilation, {@link MissingNode} for values that do not exist
+     */
+    public Map<String, JsonNode> extract(JsonNode tree) {
+        Map<String, JsonNode> values = new LinkedHashMap<>();
+        for (String pointer : pointers) {
+            values.put(pointer, tree.at(pointer));
+        }
+        return values;
+    }
+
+    /**
+     * Extracts values from document read by parser. Parser must be positioned before or at the start of the document
+     * and is left at arbitrary position after extraction.
+     *
+     * @param parser JSON parser
+     * @return values by pointers in order of compilation, {@link MissingNode} for values that do not exist
+     * @throws IOException when document can not be read
+     */
+    public Map<String, JsonNode> extract(JsonParser parser) throws IOException {
+        Map<String, JsonNode> found = new HashMap<>();
+        if (parser.currentToken() != null || parser.nextToken() != null) {
+            walk(parser, root, found);
+        }
+
+        Map<String, JsonNode> values = new LinkedHashMap<>();
+        for (String pointer : pointers) {
+            JsonNode value = found.get(pointer);
+            values.put(pointer, value != null ? value : MissingNode.getInstance());
+        }
+        return values;
+    }
+
+    /**
+     * Visits value at current parser position. Returns with parser at the last token of the value.
+     */
+    private void walk(JsonParser parser, Node node, Map<String, JsonNode> found) throws IOException {
+        if (!node.pointers.isEmpty()) {
+            JsonNode value = TREE_MAPPER.readTree(parser);
+            collect(value, node, "", found);
+            return;
+        }
+
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Node child = node.children.get(parser.getCurrentName());
+                parser.nextToken();
+                if (child != null) {
+                    walk(parser, child, found);
+                    if (found.size() == pointers.size()) {
+                        return;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY && element != null;
+                 element = parser.nextToken()) {
+                Node child = node.children.get(Integer.toString(index++));
+                if (child != null) {
+                    walk(parser, child, found);
+                    if (found.size() == pointers.size()) {
+                        return;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects values of node and all its descendants from already read subtree.
+     */
+    private static void collect(JsonNode value, Node node, String relativePointer, Map<String, JsonNode> found) {
+        for (String pointer : node.pointers) {
+            found.put(pointer, relativePointer.isEmpty() ? value : value.at(relativePointer));
+        }
+        for (Map.Entry<String, Node> child : node.children.entrySet()) {
+            String segment = child.getKey().replace("~", "~0").replace("/", "~1");
+            collect(value, child.getValue(), relativePointer + "/" + segment, found);
+        }
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<String> pointers = new ArrayList<>(1);
+    }
+
+}
@@ -0,0 +1,22 @@
+package ee.ria.riha.storage.util;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks string property with few distinct values, e.g. status or organization name. Its values are canonicalized
+ * through {@link StringPool} when pool is configured for deserialization.
+ *
+ * @see PooledStringDeserializer
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonDeserialize(using = PooledStringDeserializer.class)
+public @interface PooledString {
+}
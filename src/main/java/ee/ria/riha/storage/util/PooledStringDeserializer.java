@@ -0,0 +1,36 @@
+package ee.ria.riha.storage.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Deserializes string and replaces it with canonical instance of {@link StringPool} found in {@link
+ * DeserializationContext} attribute {@link #POOL_ATTRIBUTE}. Strings are not pooled when attribute is absent.
+ *
+ * @see PooledString
+ */
+public class PooledStringDeserializer extends StdScalarDeserializer<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Key of deserialization context attribute holding {@link StringPool}
+     */
+    public static final Object POOL_ATTRIBUTE = StringPool.class;
+
+    public PooledStringDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String value = StringDeserializer.instance.deserialize(p, ctxt);
+        Object pool = ctxt.getAttribute(POOL_ATTRIBUTE);
+        return pool instanceof StringPool ? ((StringPool) pool).intern(value) : value;
+    }
+
+}
@@ -0,0 +1,31 @@
+package ee.ria.riha.storage.util;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response model for page fetched by keyset (seek) pagination. Instead of page number it carries opaque continuation
+ * token that is passed back to fetch the next page. Token is null when there are no more records.
+ */
+@Getter
+public class SeekResponse<T> {
+
+    private int size;
+    private List<T> content = new ArrayList<>(0);
+    private String continuationToken;
+
+    public SeekResponse(int size, List<T> content, String continuationToken) {
+        this.size = size;
+        this.continuationToken = continuationToken;
+        if (content != null) {
+            this.content = content;
+        }
+    }
+
+    public boolean isHasNext() {
+        return continuationToken != null;
+    }
+
+}
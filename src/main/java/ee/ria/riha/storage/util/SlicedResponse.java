@@ -0,0 +1,72 @@
+package ee.ria.riha.storage.util;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Response model for paged list without total element count. Tells whether next page exists instead. Total count is
+ * computed lazily on first {@link #getTotalElements()} or {@link #getTotalPages()} call when count supplier is
+ * provided.
+ */
+@Getter
+public class SlicedResponse<T> {
+
+    @Getter(value = AccessLevel.PRIVATE)
+    private Pageable pageable;
+
+    private boolean hasNext;
+    private List<T> content = new ArrayList<>(0);
+
+    @Getter(value = AccessLevel.NONE)
+    private LongSupplier totalElementsSupplier;
+
+    @Getter(value = AccessLevel.NONE)
+    private Long totalElements;
+
+    public SlicedResponse(Pageable pageable, List<T> content, boolean hasNext, LongSupplier totalElementsSupplier) {
+        Assert.notNull(pageable, "pageable must not be null");
+
+        this.pageable = pageable;
+        this.hasNext = hasNext;
+        this.totalElementsSupplier = totalElementsSupplier;
+        if (content != null) {
+            this.content = content;
+        }
+    }
+
+    public int getSize() {
+        return pageable.getPageSize();
+    }
+
+    public int getPage() {
+        return pageable.getPageNumber();
+    }
+
+    /**
+     * Total number of elements. Counted once on first call when count supplier is present, otherwise lower bound
+     * known from this slice is returned.
+     *
+     * @return total number of elements
+     */
+    @JsonIgnore
+    public synchronized long getTotalElements() {
+        if (totalElements == null) {
+            totalElements = totalElementsSupplier != null
+                    ? totalElementsSupplier.getAsLong()
+                    : pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+        }
+        return totalElements;
+    }
+
+    @JsonIgnore
+    public int getTotalPages() {
+        return getSize() == 0 ? 1 : (int) Math.ceil((double) getTotalElements() / (double) getSize());
+    }
+
+}
@@ -0,0 +1,61 @@
+package ee.ria.riha.storage.util;
+
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded pool of canonical string instances. Equal strings passed to {@link #intern(String)} are replaced with single
+ * pooled instance, so repeated values of large result lists are retained once. When pool is full, new values are
+ * returned as is instead of being pooled, so the pool never grows beyond its size.
+ */
+public class StringPool {
+
+    private final int maxSize;
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSize maximum number of pooled strings
+     */
+    public StringPool(int maxSize) {
+        Assert.isTrue(maxSize > 0, "maximum size must be greater than zero");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns pooled instance equal to given string.
+     *
+     * @param value string or null
+     * @return pooled string, given string when pool is full or null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String pooled = strings.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (strings.size() >= maxSize) {
+            return value;
+        }
+
+        pooled = strings.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        strings.clear();
+    }
+
+}
@@ -0,0 +1,17 @@
+package ee.ria.riha.storage.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks property that only views over data resource return, e.g. aggregated or joined columns. Field projection leaves
+ * such property out when records are requested from the data resource itself.
+ *
+ * @see ee.ria.riha.storage.client.StorageClient#setFieldProjection(boolean)
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ViewProperty {
+}
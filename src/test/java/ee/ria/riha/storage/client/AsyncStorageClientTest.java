@@ -0,0 +1,89 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncStorageClientTest {
+
+    private static final String PATH = "db/comment";
+
+    private final StorageClient storageClient = mock(StorageClient.class);
+
+    @Test
+    public void runsRequestsOnGivenExecutor() {
+        AtomicInteger executedTasks = new AtomicInteger();
+        when(storageClient.count(PATH, null)).thenReturn(5L);
+        AsyncStorageClient asyncClient = new AsyncStorageClient(storageClient, task -> {
+            executedTasks.incrementAndGet();
+            task.run();
+        });
+
+        assertThat(asyncClient.count(PATH, null).join(), is(equalTo(5L)));
+        assertThat(executedTasks.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void completesExceptionallyWithOriginalStorageException() {
+        StorageClientException exception = new StorageClientException(
+                new StorageError(StorageErrorCode.INPUT_NO_OBJECT_FOUND_WITH_GIVEN_ID, "No object found", null));
+        when(storageClient.get(PATH, 1L, String.class)).thenThrow(exception);
+        AsyncStorageClient asyncClient = new AsyncStorageClient(storageClient, Runnable::run);
+
+        CompletableFuture<String> future = asyncClient.get(PATH, 1L, String.class);
+
+        try {
+            future.join();
+            fail("Expected completion exception");
+        } catch (CompletionException e) {
+            assertThat(e.getCause(), is(sameInstance((Throwable) exception)));
+        }
+    }
+
+    @Test
+    public void completesExceptionallyInsteadOfBlockingCallerWhenExecutorIsSaturated() throws InterruptedException {
+        ExecutorService executor = StorageExecutors.newBoundedExecutor(1, 1, "async-test-");
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> awaitUninterruptibly(release));
+            executor.execute(() -> awaitUninterruptibly(release));
+            AsyncStorageClient asyncClient = new AsyncStorageClient(storageClient, executor);
+
+            CompletableFuture<Long> future = asyncClient.count(PATH, null);
+
+            assertThat(future.isCompletedExceptionally(), is(true));
+            try {
+                future.join();
+                fail("Expected completion exception");
+            } catch (CompletionException e) {
+                assertThat(e.getCause(), is(instanceOf(RejectedExecutionException.class)));
+            }
+            verify(storageClient, never()).count(PATH, null);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
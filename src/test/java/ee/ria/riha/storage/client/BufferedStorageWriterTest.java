@@ -0,0 +1,90 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BufferedStorageWriterTest {
+
+    private static final String PATH = "db/comment";
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final StorageClient storageClient = mock(StorageClient.class);
+    private final List<List<String>> storedChunks = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<String>> failedChunks = Collections.synchronizedList(new ArrayList<>());
+
+    private final BufferedStorageWriter.ChunkListener<String> listener =
+            new BufferedStorageWriter.ChunkListener<String>() {
+                @Override
+                public void onSuccess(List<? extends String> entities, List<Long> ids) {
+                    storedChunks.add(new ArrayList<>(entities));
+                }
+
+                @Override
+                public void onFailure(List<? extends String> entities, RuntimeException exception) {
+                    failedChunks.add(new ArrayList<>(entities));
+                }
+            };
+
+    @Before
+    public void setUp() {
+        when(storageClient.getExecutor()).thenReturn(DIRECT_EXECUTOR);
+        when(storageClient.createChunk(eq(PATH), anyListOf(Object.class))).thenReturn(Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    public void writesChunkWhenBufferReachesChunkSize() {
+        BufferedStorageWriter<String> writer = new BufferedStorageWriter<>(storageClient, PATH, 2, 0, 1, listener);
+        writer.add("a");
+        writer.add("b");
+        writer.add("c");
+
+        assertThat(storedChunks, hasSize(1));
+        assertThat(storedChunks.get(0), contains("a", "b"));
+
+        writer.close();
+
+        assertThat(storedChunks, hasSize(2));
+        assertThat(storedChunks.get(1), contains("c"));
+    }
+
+    @Test
+    public void reportsFailedChunkWithItsEntities() {
+        when(storageClient.createChunk(eq(PATH), anyListOf(Object.class)))
+                .thenThrow(new StorageClientException(new StorageError()));
+
+        BufferedStorageWriter<String> writer = new BufferedStorageWriter<>(storageClient, PATH, 2, 0, 1, listener);
+        writer.add("a");
+        writer.close();
+
+        assertThat(storedChunks, is(empty()));
+        assertThat(failedChunks, hasSize(1));
+        assertThat(failedChunks.get(0), contains("a"));
+    }
+
+    @Test
+    public void flushesBufferAfterFlushInterval() throws InterruptedException {
+        BufferedStorageWriter<String> writer = new BufferedStorageWriter<>(storageClient, PATH, 10, 10, 1, listener);
+        writer.add("a");
+
+        for (int i = 0; i < 100 && storedChunks.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(storedChunks, hasSize(1));
+        writer.close();
+    }
+
+}
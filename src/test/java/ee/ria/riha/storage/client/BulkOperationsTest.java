@@ -0,0 +1,112 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+public class BulkOperationsTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void collectsOutcomeOfEveryKeyInOrderOfKeys() {
+        BulkOperationResult<Long, Long> result = BulkOperations.execute(Arrays.asList(3L, 1L, 2L, 1L), id -> {
+            if (id == 2L) {
+                throw new StorageClientException(new StorageError());
+            }
+            return id * 10;
+        }, 2, executor);
+
+        assertThat(result.isSuccessful(), is(false));
+        assertThat(result.getSucceeded().keySet(), contains(3L, 1L));
+        assertThat(result.getSucceeded().get(3L), is(equalTo(30L)));
+        assertThat(result.getFailed().keySet(), contains(2L));
+        assertThat(result.getFailed().get(2L), is(instanceOf(StorageClientException.class)));
+    }
+
+    @Test
+    public void limitsNumberOfOperationsRunningAtOnce() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        BulkOperationResult<Integer, Integer> result = BulkOperations.execute(Arrays.asList(1, 2, 3, 4, 5, 6), key -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                latch.await(10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return key;
+        }, 2, executor);
+
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(result.getSucceeded().size(), is(equalTo(6)));
+        assertThat(maxRunning.get(), is(lessThanOrEqualTo(2)));
+    }
+
+    @Test
+    public void rethrowsErrorAfterRemainingOperationsComplete() {
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+        try {
+            BulkOperations.execute(Arrays.asList(1, 2, 3, 4), key -> {
+                if (key == 1) {
+                    throw new AssertionError("operation error");
+                }
+                processed.add(key);
+                return key;
+            }, 2, executor);
+            fail("error expected");
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), is(equalTo("operation error")));
+        }
+
+        assertThat(processed, containsInAnyOrder(2, 3, 4));
+    }
+
+    @Test
+    public void runsOperationsRejectedByExecutorOnCallingThread() {
+        BulkOperationResult<Integer, String> result = BulkOperations.execute(Arrays.asList(1, 2, 3),
+                key -> Thread.currentThread().getName(), 2, runnable -> {
+                    throw new RejectedExecutionException();
+                });
+
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(result.getSucceeded().values(), everyItem(is(equalTo(Thread.currentThread().getName()))));
+    }
+
+    @Test
+    public void completesWhenCalledFromThreadOfSameExecutor() throws Exception {
+        ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<BulkOperationResult<Integer, Integer>> result = singleThreadExecutor.submit(
+                    () -> BulkOperations.execute(Arrays.asList(1, 2, 3, 4), key -> key, 1, singleThreadExecutor));
+
+            assertThat(result.get(5, TimeUnit.SECONDS).getSucceeded().size(), is(equalTo(4)));
+        } finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package ee.ria.riha.storage.client;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.ria.riha.storage.domain.model.Comment;
+import ee.ria.riha.storage.domain.model.MainResource;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FieldProjectorTest {
+
+    private final FieldProjector fieldProjector = new FieldProjector(new ObjectMapper());
+
+    @Test
+    public void derivesFieldsFromBoundPropertiesOfModel() {
+        String fields = fieldProjector.fieldsOf(Summary.class, false);
+
+        assertThat(Arrays.asList(fields.split(",")), containsInAnyOrder("summary_id", "name"));
+    }
+
+    @Test
+    public void includesSnakeCasePropertiesOfStorageModels() {
+        assertThat(Arrays.asList(fieldProjector.fieldsOf(Comment.class, true).split(",")),
+                   hasItems("comment_id", "title", "infosystem_uuid"));
+    }
+
+    @Test
+    public void projectsViewPropertiesOnlyForViews() {
+        assertThat(Arrays.asList(fieldProjector.fieldsOf(Comment.class, true).split(",")),
+                   hasItems("events", "last_comment_id"));
+        assertThat(Arrays.asList(fieldProjector.fieldsOf(Comment.class, false).split(",")),
+                   allOf(hasItem("comment_id"), not(hasItem("events")), not(hasItem("last_comment_id"))));
+        assertThat(Arrays.asList(fieldProjector.fieldsOf(MainResource.class, false).split(",")),
+                   allOf(hasItem("main_resource_id"), not(hasItem("last_positive_approval_request_date")),
+                         not(hasItem("hasUsedSystemTypeRelations"))));
+    }
+
+    @Test
+    public void doesNotProjectTypesWithoutFixedProperties() {
+        assertThat(fieldProjector.fieldsOf(JsonNode.class, true), is(nullValue()));
+        assertThat(fieldProjector.fieldsOf(String.class, true), is(nullValue()));
+        assertThat(fieldProjector.fieldsOf(Map.class, true), is(nullValue()));
+        assertThat(fieldProjector.fieldsOf(Dynamic.class, true), is(nullValue()));
+    }
+
+    @SuppressWarnings("unused")
+    private static class Summary {
+        private Long summary_id;
+        private String name;
+
+        public Long getSummary_id() {
+            return summary_id;
+        }
+
+        public void setSummary_id(Long summary_id) {
+            this.summary_id = summary_id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @JsonIgnore
+        public String getDisplayName() {
+            return "#" + summary_id + " " + name;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Dynamic {
+        private String name;
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @JsonAnySetter
+        public void set(String property, Object value) {
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ForkedTaskTest {
+
+    @Test
+    public void joiningThreadRunsTaskThatWasNotStarted() {
+        ForkedTask<String> task = ForkedTask.fork(() -> Thread.currentThread().getName(), runnable -> {
+        });
+
+        assertThat(task.join(), is(equalTo(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void joiningThreadRunsRejectedTask() {
+        ForkedTask<String> task = ForkedTask.fork(() -> "result", runnable -> {
+            throw new RejectedExecutionException();
+        });
+
+        assertThat(task.join(), is(equalTo("result")));
+    }
+
+    @Test
+    public void runsTaskOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        ForkedTask<Integer> task = ForkedTask.fork(runs::incrementAndGet, Runnable::run);
+
+        assertThat(task.join(), is(equalTo(1)));
+        assertThat(runs.get(), is(equalTo(1)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rethrowsTaskFailure() {
+        ForkedTask.fork(() -> {
+            throw new IllegalStateException();
+        }, Runnable::run).join();
+    }
+
+}
@@ -0,0 +1,137 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GetBatchDispatcherTest {
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final List<List<Long>> loadedBatches = Collections.synchronizedList(new ArrayList<>());
+    private final GetBatchDispatcher.BatchLoader loader = this::load;
+
+    private GetBatchDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    public void loadsRequestsOfTimeWindowWithSingleBatch() throws Exception {
+        dispatcher = new GetBatchDispatcher(50, TimeUnit.MILLISECONDS, 10);
+
+        CompletableFuture<String> first = dispatcher.submit("db/comment", "comment_id", 1L, String.class, loader,
+                                                            DIRECT_EXECUTOR);
+        CompletableFuture<String> second = dispatcher.submit("db/comment", "comment_id", 2L, String.class, loader,
+                                                             DIRECT_EXECUTOR);
+        CompletableFuture<String> missing = dispatcher.submit("db/comment", "comment_id", 99L, String.class, loader,
+                                                              DIRECT_EXECUTOR);
+
+        assertThat(first.get(1, TimeUnit.SECONDS), is(equalTo("record 1")));
+        assertThat(second.get(1, TimeUnit.SECONDS), is(equalTo("record 2")));
+        assertThat(missing.get(1, TimeUnit.SECONDS), is(nullValue()));
+        assertThat(loadedBatches, hasSize(1));
+        assertThat(loadedBatches.get(0), contains(1L, 2L, 99L));
+    }
+
+    @Test
+    public void dispatchesBatchWhenMaximumSizeIsReached() {
+        dispatcher = new GetBatchDispatcher(1, TimeUnit.MINUTES, 2);
+
+        CompletableFuture<String> first = dispatcher.submit("db/comment", "comment_id", 1L, String.class, loader,
+                                                            DIRECT_EXECUTOR);
+        CompletableFuture<String> second = dispatcher.submit("db/comment", "comment_id", 1L, String.class, loader,
+                                                             DIRECT_EXECUTOR);
+
+        assertThat(first.isDone(), is(true));
+        assertThat(second.join(), is(equalTo("record 1")));
+        assertThat(loadedBatches, hasSize(1));
+        assertThat(loadedBatches.get(0), contains(1L));
+    }
+
+    @Test
+    public void keepsBatchesOfDifferentPathsSeparate() {
+        dispatcher = new GetBatchDispatcher(1, TimeUnit.MINUTES, 1);
+
+        dispatcher.submit("db/comment", "comment_id", 1L, String.class, loader, DIRECT_EXECUTOR);
+        dispatcher.submit("db/main_resource", "main_resource_id", 1L, String.class, loader, DIRECT_EXECUTOR);
+
+        assertThat(loadedBatches, hasSize(2));
+        assertThat(dispatcher.getRequestCount(), is(equalTo(2L)));
+        assertThat(dispatcher.getBatchCount(), is(equalTo(2L)));
+    }
+
+    @Test
+    public void keepsBatchesOfDifferentLoadersSeparate() {
+        dispatcher = new GetBatchDispatcher(1, TimeUnit.MINUTES, 2);
+        GetBatchDispatcher.BatchLoader otherLoader = this::load;
+
+        dispatcher.submit("db/comment", "comment_id", 1L, String.class, loader, DIRECT_EXECUTOR);
+        dispatcher.submit("db/comment", "comment_id", 2L, String.class, otherLoader, DIRECT_EXECUTOR);
+
+        assertThat(loadedBatches, is(empty()));
+    }
+
+    @Test
+    public void loadsRequestDirectlyAfterClose() {
+        dispatcher = new GetBatchDispatcher(1, TimeUnit.MINUTES, 10);
+        dispatcher.close();
+
+        CompletableFuture<String> record = dispatcher.submit("db/comment", "comment_id", 1L, String.class, loader,
+                                                             command -> {
+                                                                 throw new IllegalStateException("not expected");
+                                                             });
+
+        assertThat(record.isDone(), is(true));
+        assertThat(record.join(), is(equalTo("record 1")));
+        assertThat(loadedBatches, hasSize(1));
+    }
+
+    @Test
+    public void completesMoreWaitingRequestsThanExecutorHasThreads() throws Exception {
+        dispatcher = new GetBatchDispatcher(20, TimeUnit.MILLISECONDS, 100);
+        ExecutorService executor = StorageExecutors.newBoundedExecutor(2, "batch-test-");
+        try {
+            List<CompletableFuture<String>> records = new ArrayList<>();
+            for (long id = 1; id <= 6; id++) {
+                Long recordId = id;
+                records.add(CompletableFuture.supplyAsync(
+                        () -> dispatcher.fetch("db/comment", "comment_id", recordId, String.class, loader, executor),
+                        executor));
+            }
+
+            for (int i = 0; i < records.size(); i++) {
+                assertThat(records.get(i).get(5, TimeUnit.SECONDS), is(equalTo("record " + (i + 1))));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Long, ?> load(String path, String idProperty, Collection<Long> ids, Class<?> type) {
+        loadedBatches.add(new ArrayList<>(ids));
+        Map<Long, String> records = new HashMap<>();
+        for (Long id : ids) {
+            if (id < 10) {
+                records.put(id, "record " + id);
+            }
+        }
+        return records;
+    }
+
+}
@@ -0,0 +1,39 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class IdRangeTest {
+
+    @Test
+    public void ordersAndDeduplicatesIds() {
+        List<IdRange> ranges = IdRange.split(Arrays.asList(5L, 3L, null, 5L, 4L), 10, 40);
+
+        assertThat(ranges, hasSize(1));
+        assertThat(ranges.get(0).getIds(), contains(3L, 4L, 5L));
+        assertThat(ranges.get(0).getSpan(), is(equalTo(3L)));
+    }
+
+    @Test
+    public void limitsNumberOfIdsInRange() {
+        List<IdRange> ranges = IdRange.split(Arrays.asList(1L, 2L, 3L, 4L, 5L), 2, 8);
+
+        assertThat(ranges, hasSize(3));
+        assertThat(ranges.get(2).getIds(), contains(5L));
+    }
+
+    @Test
+    public void splitsSparseIdsIntoSeparateRanges() {
+        List<IdRange> ranges = IdRange.split(Arrays.asList(1L, 2L, 1000L), 10, 40);
+
+        assertThat(ranges, hasSize(2));
+        assertThat(ranges.get(0).getLast(), is(equalTo(2L)));
+        assertThat(ranges.get(1).getFirst(), is(equalTo(1000L)));
+    }
+
+}
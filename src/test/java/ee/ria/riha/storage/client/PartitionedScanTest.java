@@ -0,0 +1,105 @@
+package ee.ria.riha.storage.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import ee.ria.riha.storage.util.FilterRequest;
+import ee.ria.riha.storage.util.Filterable;
+import ee.ria.riha.storage.util.Pageable;
+import ee.ria.riha.storage.util.SeekResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PartitionedScanTest {
+
+    private static final String PATH = "db/comment";
+    private static final String ID_PROPERTY = "comment_id";
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+    private static final Pattern RANGE_FILTER = Pattern.compile("comment_id,>=,(\\d+),comment_id,<=,(\\d+)");
+
+    private final StorageClient storageClient = mock(StorageClient.class);
+    private final List<Long> scannedIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<ScanProgress> progress = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        when(storageClient.find(eq(PATH), any(Pageable.class), any(Filterable.class), eq(JsonNode.class)))
+                .thenAnswer(invocation -> {
+                    Filterable filterable = (Filterable) invocation.getArguments()[2];
+                    long boundary = filterable.getSort().startsWith("-") ? 25L : 1L;
+                    return Collections.singletonList(JsonNodeFactory.instance.objectNode().put(ID_PROPERTY, boundary));
+                });
+        when(storageClient.seek(eq(PATH), eq(ID_PROPERTY), any(Filterable.class), anyString(), anyInt(),
+                                eq(Long.class)))
+                .thenAnswer(invocation -> {
+                    Matcher range = RANGE_FILTER.matcher(((Filterable) invocation.getArguments()[2]).getFilter());
+                    assertThat(range.find(), is(true));
+                    List<Long> ids = new ArrayList<>();
+                    for (long id = Long.parseLong(range.group(1)); id <= Long.parseLong(range.group(2)); id++) {
+                        ids.add(id);
+                    }
+                    return new SeekResponse<>(100, ids, null);
+                });
+    }
+
+    @Test
+    public void splitsIdRangeIntoEvenPartitionsCoveringAllIds() {
+        List<long[]> partitions = PartitionedScan.split(1, 10, 3);
+
+        assertThat(partitions, hasSize(3));
+        assertThat(partitions.get(0), is(equalTo(new long[]{1, 4})));
+        assertThat(partitions.get(1), is(equalTo(new long[]{5, 8})));
+        assertThat(partitions.get(2), is(equalTo(new long[]{9, 10})));
+    }
+
+    @Test
+    public void doesNotCreateMorePartitionsThanIds() {
+        assertThat(PartitionedScan.split(7, 8, 4), hasSize(2));
+    }
+
+    @Test
+    public void scansEveryPartitionAndReportsProgress() {
+        ScanSettings settings = new ScanSettings();
+        settings.setPartitions(4);
+        settings.setExecutor(DIRECT_EXECUTOR);
+        settings.setProgressListener(progress::add);
+
+        ScanProgress result = new PartitionedScan<>(storageClient, PATH, ID_PROPERTY,
+                                                    new FilterRequest("type,=,ISSUE", null, null), settings,
+                                                    Long.class, scannedIds::add).run();
+
+        assertThat(scannedIds, hasSize(25));
+        assertThat(result.isComplete(), is(true));
+        assertThat(result.getPartitionCount(), is(equalTo(4)));
+        assertThat(result.getRecordCount(), is(equalTo(25L)));
+        assertThat(progress, hasSize(4));
+    }
+
+    @Test
+    public void completesEmptyScanWithoutPartitions() {
+        when(storageClient.find(eq(PATH), any(Pageable.class), any(Filterable.class), eq(JsonNode.class)))
+                .thenReturn(Collections.emptyList());
+
+        ScanProgress result = new PartitionedScan<>(storageClient, PATH, ID_PROPERTY, null, new ScanSettings(),
+                                                    Long.class, scannedIds::add).run();
+
+        assertThat(result.getPartitionCount(), is(equalTo(0)));
+        assertThat(scannedIds, is(empty()));
+    }
+
+}
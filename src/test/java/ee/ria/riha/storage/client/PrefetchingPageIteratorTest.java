@@ -0,0 +1,68 @@
+package ee.ria.riha.storage.client;
+
+import ee.ria.riha.storage.util.PageRequest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PrefetchingPageIteratorTest {
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final List<Integer> requestedPages = Collections.synchronizedList(new ArrayList<>());
+
+    private final Function<PageRequest, List<String>> pageLoader = pageRequest -> {
+        requestedPages.add(pageRequest.getPageNumber());
+        switch (pageRequest.getPageNumber()) {
+            case 0:
+                return Arrays.asList("a", "b");
+            case 1:
+                return Arrays.asList("c", "d");
+            case 2:
+                return Collections.singletonList("e");
+            default:
+                return Collections.emptyList();
+        }
+    };
+
+    @Test
+    public void iteratesOverAllPagesUntilIncompletePage() {
+        List<String> records = collect(new PrefetchingPageIterator<>(pageLoader, DIRECT_EXECUTOR, 2, 0));
+
+        assertThat(records, contains("a", "b", "c", "d", "e"));
+        assertThat(requestedPages, contains(0, 1, 2));
+    }
+
+    @Test
+    public void prefetchesFollowingPages() {
+        List<String> records = collect(new PrefetchingPageIterator<>(pageLoader, DIRECT_EXECUTOR, 2, 2));
+
+        assertThat(records, contains("a", "b", "c", "d", "e"));
+        assertThat(requestedPages, contains(0, 1, 2, 3));
+    }
+
+    @Test
+    public void doesNotRequestPagesAfterClose() {
+        PrefetchingPageIterator<String> iterator = new PrefetchingPageIterator<>(pageLoader, DIRECT_EXECUTOR, 2, 0);
+        iterator.next();
+        iterator.close();
+
+        assertThat(collect(iterator), contains("b"));
+        assertThat(requestedPages, contains(0));
+    }
+
+    private List<String> collect(PrefetchingPageIterator<String> iterator) {
+        List<String> records = new ArrayList<>();
+        iterator.forEachRemaining(records::add);
+        return records;
+    }
+
+}
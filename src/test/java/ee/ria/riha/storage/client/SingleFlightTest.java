@@ -0,0 +1,97 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger callCount = new AtomicInteger();
+    private final CountDownLatch callStarted = new CountDownLatch(1);
+    private final CountDownLatch callReleased = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void sharesResultOfInFlightCall() throws Exception {
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("key", () -> blockingCall("result")), executor);
+        callStarted.await(1, TimeUnit.SECONDS);
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("key", () -> blockingCall("other result")), executor);
+        waitUntilFollowerJoins();
+        callReleased.countDown();
+
+        assertThat(leader.get(1, TimeUnit.SECONDS), is(equalTo("result")));
+        assertThat(follower.get(1, TimeUnit.SECONDS), is(equalTo("result")));
+        assertThat(callCount.get(), is(equalTo(1)));
+        assertThat(singleFlight.inFlightCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void sharesExceptionOfInFlightCall() throws Exception {
+        StorageClientException exception = new StorageClientException(new StorageError());
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("key", () -> {
+                    blockingCall(null);
+                    throw exception;
+                }), executor);
+        callStarted.await(1, TimeUnit.SECONDS);
+
+        CompletableFuture<Throwable> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                singleFlight.execute("key", () -> blockingCall("other result"));
+                return null;
+            } catch (StorageClientException e) {
+                return e;
+            }
+        }, executor);
+        waitUntilFollowerJoins();
+        callReleased.countDown();
+
+        assertThat(follower.get(1, TimeUnit.SECONDS), is(sameInstance(exception)));
+        assertThat(leader.handle((result, e) -> e).get(1, TimeUnit.SECONDS), is(notNullValue()));
+        assertThat(callCount.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void performsSequentialCallsSeparately() {
+        callReleased.countDown();
+        singleFlight.execute("key", () -> blockingCall("first"));
+
+        assertThat(singleFlight.execute("key", () -> blockingCall("second")), is(equalTo("second")));
+        assertThat(callCount.get(), is(equalTo(2)));
+    }
+
+    private String blockingCall(String result) {
+        callCount.incrementAndGet();
+        callStarted.countDown();
+        try {
+            callReleased.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private void waitUntilFollowerJoins() throws InterruptedException {
+        // follower has no observable state while waiting, give it time to reach in-flight call
+        Thread.sleep(50);
+    }
+
+}
@@ -0,0 +1,90 @@
+package ee.ria.riha.storage.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StorageCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        StorageCache<String, String> cache = new StorageCache<>(2, 1, TimeUnit.MINUTES);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertThat(cache.get("a"), is(equalTo("A")));
+        assertThat(cache.get("b"), is(nullValue()));
+        assertThat(cache.get("c"), is(equalTo("C")));
+        assertThat(cache.getStats().getEvictionCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void expiresEntriesAfterTimeToLive() throws InterruptedException {
+        StorageCache<String, String> cache = new StorageCache<>(2, 1, TimeUnit.MILLISECONDS);
+        cache.put("a", "A");
+        Thread.sleep(5);
+
+        assertThat(cache.get("a"), is(nullValue()));
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        StorageCache<String, String> cache = new StorageCache<>(2, 1, TimeUnit.MINUTES);
+        cache.put("a", "A");
+        cache.get("a");
+        cache.get("b");
+
+        CacheStats stats = cache.getStats();
+        assertThat(stats.getHitCount(), is(equalTo(1L)));
+        assertThat(stats.getMissCount(), is(equalTo(1L)));
+        assertThat(stats.getHitRate(), is(closeTo(0.5, 0.001)));
+    }
+
+    @Test
+    public void invalidatesAllEntriesOfGroup() {
+        StorageCache<String, String> cache = new StorageCache<>(3, 1, TimeUnit.MINUTES,
+                                                                key -> key.substring(0, key.indexOf(':')));
+        cache.put("db/comment:1", "A");
+        cache.put("db/comment:2", "B");
+        cache.put("db/main_resource:1", "C");
+
+        cache.invalidateGroup("db/comment");
+
+        assertThat(cache.size(), is(equalTo(1)));
+        assertThat(cache.get("db/main_resource:1"), is(equalTo("C")));
+    }
+
+    @Test
+    public void discardsValueLoadedWhileGroupWasInvalidated() {
+        StorageCache<String, String> cache = new StorageCache<>(3, 1, TimeUnit.MINUTES);
+        long staleGeneration = cache.beginLoad("a");
+        cache.invalidateGroup("a");
+        long generation = cache.beginLoad("a");
+
+        cache.completeLoad("a", staleGeneration, "stale");
+        assertThat(cache.get("a"), is(nullValue()));
+
+        cache.completeLoad("a", generation, "fresh");
+        assertThat(cache.get("a"), is(equalTo("fresh")));
+    }
+
+    @Test
+    public void invalidatesEntriesMatchingPredicate() {
+        StorageCache<String, String> cache = new StorageCache<>(3, 1, TimeUnit.MINUTES);
+        cache.put("db/comment:1", "A");
+        cache.put("db/comment:2", "B");
+        cache.put("db/main_resource:1", "C");
+
+        cache.invalidateIf(key -> key.startsWith("db/comment:"));
+
+        assertThat(cache.size(), is(equalTo(1)));
+        assertThat(cache.get("db/main_resource:1"), is(equalTo("C")));
+    }
+
+}
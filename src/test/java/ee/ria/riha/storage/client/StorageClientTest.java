@@ -1,7 +1,16 @@
 package ee.ria.riha.storage.client;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import ee.ria.riha.storage.domain.model.Comment;
 import ee.ria.riha.storage.util.FilterRequest;
 import ee.ria.riha.storage.util.PageRequest;
+import ee.ria.riha.storage.util.PagedResponse;
+import ee.ria.riha.storage.util.PooledStringDeserializer;
+import ee.ria.riha.storage.util.SeekResponse;
+import ee.ria.riha.storage.util.SlicedResponse;
+import ee.ria.riha.storage.util.StringPool;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -12,11 +21,23 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -55,6 +76,17 @@ public class StorageClientTest {
                                    Matchers.<ParameterizedTypeReference<List<String>>>any())).thenReturn(ResponseEntity.ok(response));
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void shutsDownOwnedConnectionPoolOnClose() throws IOException {
+        StorageClient pooledClient = new StorageClient("http://localhost:1/api", new HttpTransportSettings());
+
+        pooledClient.close();
+
+        pooledClient.getRestTemplate().getRequestFactory()
+                .createRequest(URI.create("http://localhost:1/api"), HttpMethod.GET)
+                .execute();
+    }
+
     @Test
     public void dividesResponseArrayToListOfInfoSystemJSONs() {
         List<String> infoSystems = storageClient.find("path", String.class);
@@ -64,6 +96,252 @@ public class StorageClientTest {
         assertThat(infoSystems.get(1), containsString("urn:fdc:riha.eesti.ee:2016:classifier:436900"));
     }
 
+    @Test
+    public void completesAsyncSearchWithFoundResources() {
+        List<String> infoSystems = storageClient.async().find("path", null, String.class).join();
+
+        assertThat(infoSystems, hasSize(2));
+    }
+
+    @Test
+    public void runsCountAndFindInConcurrentListingMode() {
+        when(restTemplate.getForObject(contains("op=count"), eq(JsonNode.class)))
+                .thenReturn(JsonNodeFactory.instance.objectNode().put("ok", 2L));
+        storageClient.setConcurrentListing(true);
+
+        PagedResponse<String> response = storageClient.list("path", new PageRequest(0, 10), null, String.class);
+
+        assertThat(response.getTotalElements(), is(equalTo(2L)));
+        assertThat(response.getContent(), hasSize(2));
+    }
+
+    @Test
+    public void slicesMissingResponseBodyAsEmptyPage() {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(),
+                                   Matchers.<ParameterizedTypeReference<List<String>>>any()))
+                .thenReturn(ResponseEntity.ok(null));
+
+        SlicedResponse<String> response = storageClient.slice("path", new PageRequest(0, 10), null, String.class);
+
+        assertThat(response.isHasNext(), is(false));
+        assertThat(response.getContent(), is(empty()));
+    }
+
+    @Test
+    public void requestsOneExtraRecordToDetectNextPageWithoutCounting() {
+        SlicedResponse<String> response = storageClient.slice("path", new PageRequest(3, 1), null, String.class);
+
+        assertThat(response.isHasNext(), is(true));
+        assertThat(response.getContent(), hasSize(1));
+        verify(restTemplate).exchange(
+                argThat(allOf(containsString("limit=2"), containsString("offset=3"))),
+                eq(HttpMethod.GET),
+                any(),
+                Matchers.<ParameterizedTypeReference<List<String>>>any());
+        verify(restTemplate, never()).getForObject(anyString(), eq(JsonNode.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void passesDecodedResourcesToConsumerOneByOne() {
+        byte[] body = "[{\"comment_id\": 1, \"title\": \"first\"}, {\"comment_id\": 2, \"title\": \"second\"}]"
+                .getBytes(StandardCharsets.UTF_8);
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), Matchers.any(RequestCallback.class),
+                                  Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> ((ResponseExtractor<?>) invocation.getArguments()[3])
+                        .extractData(new MockClientHttpResponse(body, HttpStatus.OK)));
+
+        List<Comment> comments = new ArrayList<>();
+        long count = storageClient.find("path", null, null, Comment.class, comments::add);
+
+        assertThat(count, is(equalTo(2L)));
+        assertThat(comments, hasSize(2));
+        assertThat(comments.get(0).getComment_id(), is(equalTo(1L)));
+        assertThat(comments.get(1).getTitle(), is(equalTo("second")));
+    }
+
+    @Test
+    public void servesRepeatedGetFromEntityCacheUntilUpdated() {
+        storageClient.setEntityCache(new EntityCache(10, 1, TimeUnit.MINUTES));
+        when(restTemplate.getForObject(contains("path=db/comment/1"), eq(String.class))).thenReturn("comment");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(),
+                                   Matchers.<ParameterizedTypeReference<JsonNode>>any()))
+                .thenReturn(ResponseEntity.ok(JsonNodeFactory.instance.objectNode().put("ok", 1L)));
+
+        storageClient.get("db/comment", 1L, String.class);
+        storageClient.get("db/comment", 1L, String.class);
+        storageClient.update("db/comment", 1L, "updated");
+        storageClient.get("db/comment", 1L, String.class);
+
+        verify(restTemplate, times(2)).getForObject(contains("path=db/comment/1"), eq(String.class));
+        assertThat(storageClient.getEntityCache().getStats().getHitCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void doesNotCacheCountInvalidatedWhileBeingFetched() {
+        storageClient.setCountCache(new CountCache(10, 1, TimeUnit.MINUTES));
+        when(restTemplate.getForObject(contains("op=count"), eq(JsonNode.class))).thenAnswer(invocation -> {
+            storageClient.getCountCache().invalidate(Collections.singleton("db/comment"));
+            return JsonNodeFactory.instance.objectNode().put("ok", 5L);
+        });
+
+        assertThat(storageClient.count("db/comment", null), is(equalTo(5L)));
+        assertThat(storageClient.count("db/comment", null), is(equalTo(5L)));
+
+        verify(restTemplate, times(2)).getForObject(contains("op=count"), eq(JsonNode.class));
+    }
+
+    @Test
+    public void returnsOwnCopyOfCachedEntityToEveryCaller() {
+        storageClient.setEntityCache(new EntityCache(10, 1, TimeUnit.MINUTES));
+        Comment comment = new Comment();
+        comment.setComment_id(1L);
+        comment.setTitle("original");
+        when(restTemplate.getForObject(contains("path=db/comment/1"), eq(Comment.class))).thenReturn(comment);
+
+        storageClient.get("db/comment", 1L, Comment.class).setTitle("modified");
+        Comment cached = storageClient.get("db/comment", 1L, Comment.class);
+
+        assertThat(cached.getTitle(), is(equalTo("original")));
+        assertThat(storageClient.getEntityCache().getStats().getHitCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void fetchesRecordsByIdsWithRangeFilterAndDropsNotRequestedRecords() {
+        List<JsonNode> rows = new ArrayList<>();
+        for (long id = 3; id <= 5; id++) {
+            rows.add(JsonNodeFactory.instance.objectNode().put("comment_id", id).put("title", "comment " + id));
+        }
+        when(restTemplate.exchange(contains("filter=comment_id,>=,3,comment_id,<=,5"), eq(HttpMethod.GET),
+                                   any(), Matchers.<ParameterizedTypeReference<List<JsonNode>>>any()))
+                .thenReturn(ResponseEntity.ok(rows));
+
+        Map<Long, Comment> comments = storageClient.getAll("db/comment", "comment_id", Arrays.asList(5L, 3L),
+                                                           Comment.class);
+
+        assertThat(comments.keySet(), contains(5L, 3L));
+        assertThat(comments.get(3L).getTitle(), is(equalTo("comment 3")));
+    }
+
+    @Test
+    public void seeksNextPageAfterLastSeenSortKeyValue() {
+        List<JsonNode> rows = new ArrayList<>();
+        for (long id = 7; id <= 9; id++) {
+            rows.add(JsonNodeFactory.instance.objectNode().put("comment_id", id).put("title", "comment " + id));
+        }
+        when(restTemplate.exchange(contains("filter=type,=,ISSUE"), eq(HttpMethod.GET), any(),
+                                   Matchers.<ParameterizedTypeReference<List<JsonNode>>>any()))
+                .thenReturn(ResponseEntity.ok(rows));
+
+        SeekResponse<Comment> first = storageClient.seek("db/comment", "comment_id",
+                                                         new FilterRequest("type,=,ISSUE", "-title", null), null, 2,
+                                                         Comment.class);
+
+        assertThat(first.getContent(), hasSize(2));
+        assertThat(first.isHasNext(), is(true));
+
+        storageClient.seek("db/comment", "comment_id", new FilterRequest("type,=,ISSUE", null, null),
+                           first.getContinuationToken(), 2, Comment.class);
+
+        verify(restTemplate).exchange(
+                argThat(allOf(
+                        containsString("limit=3"),
+                        containsString("offset=0"),
+                        containsString("filter=type,=,ISSUE,comment_id,>,8"),
+                        containsString("sort=comment_id"))),
+                eq(HttpMethod.GET),
+                any(),
+                Matchers.<ParameterizedTypeReference<List<JsonNode>>>any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsContinuationTokenOfDifferentSortKey() {
+        String token = new SeekCursor("comment_id", "8").toToken();
+
+        storageClient.seek("db/comment", "-comment_id", null, token, 2, Comment.class);
+    }
+
+    @Test
+    public void derivesFieldsFromResponseTypeWhenFieldProjectionIsEnabled() {
+        storageClient.setFieldProjection(true);
+
+        storageClient.find("path", new PageRequest(0, 10), new FilterRequest("title,=,test", null, null),
+                           Comment.class);
+        storageClient.find("path", new PageRequest(0, 10), new FilterRequest(null, null, "title"), Comment.class);
+
+        verify(restTemplate).exchange(
+                argThat(allOf(containsString("filter=title,=,test"), containsString("fields="),
+                              containsString("comment_id"), containsString("author_name"))),
+                eq(HttpMethod.GET),
+                any(),
+                Matchers.<ParameterizedTypeReference<List<Comment>>>any());
+        verify(restTemplate).exchange(
+                Matchers.endsWith("fields=title"),
+                eq(HttpMethod.GET),
+                any(),
+                Matchers.<ParameterizedTypeReference<List<Comment>>>any());
+    }
+
+    @Test
+    public void leavesViewPropertiesOutOfProjectionOfDataResourceWithViews() {
+        storageClient.setFieldProjection(true);
+        storageClient.registerView("db/comment", "db/comment_type_issue_view");
+
+        storageClient.find("db/comment", new PageRequest(0, 10), null, Comment.class);
+        storageClient.find("db/comment_type_issue_view", new PageRequest(0, 10), null, Comment.class);
+
+        verify(restTemplate).exchange(
+                argThat(allOf(containsString("path=db/comment&"), containsString("comment_id"),
+                              not(containsString("last_comment_id")))),
+                eq(HttpMethod.GET),
+                any(),
+                Matchers.<ParameterizedTypeReference<List<Comment>>>any());
+        verify(restTemplate).exchange(
+                argThat(allOf(containsString("path=db/comment_type_issue_view&"), containsString("last_comment_id"))),
+                eq(HttpMethod.GET),
+                any(),
+                Matchers.<ParameterizedTypeReference<List<Comment>>>any());
+    }
+
+    @Test
+    public void doesNotRegisterStringPoolInSharedRestTemplate() {
+        ObjectMapper sharedObjectMapper = new ObjectMapper();
+        RestTemplate sharedRestTemplate = new RestTemplate();
+        sharedRestTemplate.getMessageConverters().clear();
+        sharedRestTemplate.getMessageConverters().add(new MappingJackson2HttpMessageConverter(sharedObjectMapper));
+        StorageClient client = new StorageClient("http://storage/api", sharedRestTemplate);
+
+        client.setStringPool(new StringPool(100));
+
+        assertThat(sharedObjectMapper.getDeserializationConfig().getAttributes()
+                           .getAttribute(PooledStringDeserializer.POOL_ATTRIBUTE), is(nullValue()));
+        assertThat(client.getObjectMapper(), is(not(sameInstance(sharedObjectMapper))));
+        assertThat(((MappingJackson2HttpMessageConverter) sharedRestTemplate.getMessageConverters().get(0))
+                           .getObjectMapper(), is(sameInstance(sharedObjectMapper)));
+        assertThat(client.getRestTemplate(), is(not(sameInstance(sharedRestTemplate))));
+        assertThat(client.getRestTemplate().getRequestFactory(),
+                   is(sameInstance(sharedRestTemplate.getRequestFactory())));
+        assertThat(((MappingJackson2HttpMessageConverter) client.getRestTemplate().getMessageConverters().get(0))
+                           .getObjectMapper(), is(sameInstance(client.getObjectMapper())));
+    }
+
+    @Test
+    public void canonicalizesRepeatedStringsWhenStringPoolIsSet() throws Exception {
+        String json = "[{\"status\": \"OPEN\", \"title\": \"first\"}, {\"status\": \"OPEN\", \"title\": \"first\"}]";
+        StorageClient client = new StorageClient(URL);
+        client.setStringPool(new StringPool(100));
+
+        Comment[] comments = client.getObjectMapper().readValue(json, Comment[].class);
+
+        assertThat(comments[1].getStatus(), is(sameInstance(comments[0].getStatus())));
+        assertThat(comments[1].getTitle(), is(not(sameInstance(comments[0].getTitle()))));
+
+        client.setStringPool(null);
+        comments = client.getObjectMapper().readValue(json, Comment[].class);
+
+        assertThat(comments[1].getStatus(), is(not(sameInstance(comments[0].getStatus()))));
+    }
+
     @Test
     public void includesPagingAndFilteringParametersDuringSearch() {
         storageClient.find("path", new PageRequest(5, 3),
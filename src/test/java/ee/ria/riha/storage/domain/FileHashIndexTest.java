@@ -0,0 +1,88 @@
+package ee.ria.riha.storage.domain;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FileHashIndexTest {
+
+    private static final UUID FILE_UUID = UUID.fromString("5e2b2f2e-8c6f-4b5c-9d53-3a3c4f1b2a10");
+    private static final UUID INFO_SYSTEM_UUID = UUID.fromString("0d7f0c1e-46e3-4a5f-a3f2-9f6a2b8d7c11");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void restoresEntriesFromIndexFile() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("files.idx");
+        try (FileHashIndex index = new FileHashIndex(file)) {
+            index.put("aa", FILE_UUID, INFO_SYSTEM_UUID);
+            index.put("bb", UUID.randomUUID(), INFO_SYSTEM_UUID);
+            index.remove("bb");
+        }
+
+        try (FileHashIndex index = new FileHashIndex(file)) {
+            assertThat(index.size(), is(equalTo(1)));
+            assertThat(index.get("aa").getFileUuid(), is(equalTo(FILE_UUID)));
+            assertThat(index.get("aa").getInfoSystemUuid(), is(equalTo(INFO_SYSTEM_UUID)));
+            assertThat(index.get("bb"), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void skipsPartiallyWrittenLine() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("files.idx");
+        Files.write(file, ("aa " + FILE_UUID + " " + INFO_SYSTEM_UUID + "\nbb 5e2b2f2e-8c6f").getBytes(
+                StandardCharsets.UTF_8));
+
+        try (FileHashIndex index = new FileHashIndex(file)) {
+            assertThat(index.size(), is(equalTo(1)));
+        }
+    }
+
+    @Test
+    public void compactsIndexFileWithReplacedEntries() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("files.idx");
+        try (FileHashIndex index = new FileHashIndex(file)) {
+            for (int i = 0; i < 100; i++) {
+                index.put("aa", UUID.randomUUID(), INFO_SYSTEM_UUID);
+            }
+            index.put("aa", FILE_UUID, INFO_SYSTEM_UUID);
+        }
+
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8).size(), is(lessThanOrEqualTo(18)));
+        try (FileHashIndex index = new FileHashIndex(file)) {
+            assertThat(index.get("aa").getFileUuid(), is(equalTo(FILE_UUID)));
+        }
+    }
+
+    @Test
+    public void keepsAppendingWhenCompactionFails() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("files.idx");
+        // Compacted file can not be written over non-empty directory
+        Path blocker = Files.createDirectories(file.resolveSibling("files.idx.tmp"));
+        Files.createFile(blocker.resolve("blocker"));
+
+        try (FileHashIndex index = new FileHashIndex(file)) {
+            for (int i = 0; i < 100; i++) {
+                index.put("aa", UUID.randomUUID(), INFO_SYSTEM_UUID);
+            }
+            index.put("aa", FILE_UUID, INFO_SYSTEM_UUID);
+        }
+
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8).size(), is(equalTo(101)));
+        try (FileHashIndex index = new FileHashIndex(file)) {
+            assertThat(index.get("aa").getFileUuid(), is(equalTo(FILE_UUID)));
+        }
+    }
+
+}
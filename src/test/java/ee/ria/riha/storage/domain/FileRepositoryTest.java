@@ -0,0 +1,477 @@
+package ee.ria.riha.storage.domain;
+
+import ee.ria.riha.storage.client.BulkOperationResult;
+import ee.ria.riha.storage.client.HttpTransportSettings;
+import ee.ria.riha.storage.client.StorageClient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class FileRepositoryTest {
+
+    private static final String URL = "http://storage/api";
+    private static final UUID FILE_UUID = UUID.fromString("5e2b2f2e-8c6f-4b5c-9d53-3a3c4f1b2a10");
+    private static final String FILE_URL = URL + "/file/" + FILE_UUID;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockRestServiceServer server;
+    private FileRepository fileRepository;
+
+    @Before
+    public void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        fileRepository = new FileRepository(restTemplate, URL);
+    }
+
+    @Test
+    public void downloadsFileResourceToTargetFile() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        server.expect(requestTo(FILE_URL))
+                .andRespond(withStatus(HttpStatus.OK).body("hello world").headers(headers));
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+
+        ResponseEntity<Path> response = fileRepository.downloadTo(FILE_UUID, null, target);
+
+        assertThat(response.getBody(), is(equalTo(target)));
+        assertThat(response.getHeaders().getContentLength(), is(equalTo(11L)));
+        assertThat(response.getHeaders().getContentType(), is(equalTo(MediaType.TEXT_PLAIN)));
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("hello world")));
+        assertThat(Files.exists(target.resolveSibling("file.txt.part")), is(false));
+        server.verify();
+    }
+
+    @Test
+    public void resumesDownloadFromPartialFile() throws IOException {
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+        Files.write(target.resolveSibling("file.txt.part"), "hello ".getBytes(StandardCharsets.UTF_8));
+        Files.write(target.resolveSibling("file.txt.part.validator"), "\"v1\"".getBytes(StandardCharsets.UTF_8));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes 6-10/11");
+        server.expect(requestTo(FILE_URL))
+                .andExpect(header(HttpHeaders.RANGE, "bytes=6-"))
+                .andExpect(header(HttpHeaders.IF_RANGE, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).body("world").headers(headers));
+
+        fileRepository.downloadTo(FILE_UUID, null, target);
+
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("hello world")));
+        assertThat(Files.exists(target.resolveSibling("file.txt.part.validator")), is(false));
+        server.verify();
+    }
+
+    @Test
+    public void resumesInterruptedDownloadConditionallyOnETag() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v1\"");
+        headers.setContentLength(11);
+        server.expect(requestTo(FILE_URL))
+                .andRespond(withStatus(HttpStatus.OK).body("hello ").headers(headers));
+        HttpHeaders partialHeaders = new HttpHeaders();
+        partialHeaders.set(HttpHeaders.CONTENT_RANGE, "bytes 6-10/11");
+        server.expect(requestTo(FILE_URL))
+                .andExpect(header(HttpHeaders.RANGE, "bytes=6-"))
+                .andExpect(header(HttpHeaders.IF_RANGE, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).body("world").headers(partialHeaders));
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+
+        fileRepository.downloadTo(FILE_UUID, null, target);
+
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("hello world")));
+        server.verify();
+    }
+
+    @Test
+    public void startsOverWhenValidatorOfPartialFileIsUnknown() throws IOException {
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+        Files.write(target.resolveSibling("file.txt.part"), "stale content".getBytes(StandardCharsets.UTF_8));
+        server.expect(requestTo(FILE_URL))
+                .andExpect(request -> assertThat(request.getHeaders().containsKey(HttpHeaders.RANGE), is(false)))
+                .andRespond(withStatus(HttpStatus.OK).body("new"));
+
+        fileRepository.downloadTo(FILE_UUID, null, target);
+
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("new")));
+        server.verify();
+    }
+
+    @Test
+    public void startsOverWhenServerIgnoresRange() throws IOException {
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+        Files.write(target.resolveSibling("file.txt.part"), "stale content".getBytes(StandardCharsets.UTF_8));
+        Files.write(target.resolveSibling("file.txt.part.validator"), "\"v1\"".getBytes(StandardCharsets.UTF_8));
+        server.expect(requestTo(FILE_URL))
+                .andExpect(header(HttpHeaders.IF_RANGE, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.OK).body("new"));
+
+        fileRepository.downloadTo(FILE_UUID, null, target);
+
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("new")));
+    }
+
+    @Test(expected = IOException.class)
+    public void failsWhenContentIsShorterThanContentLength() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(100);
+        server.expect(ExpectedCount.manyTimes(), requestTo(FILE_URL))
+                .andRespond(withStatus(HttpStatus.OK).body("truncated").headers(headers));
+
+        fileRepository.downloadTo(FILE_UUID, null, temporaryFolder.getRoot().toPath().resolve("file.txt"));
+    }
+
+    @Test
+    public void downloadsRangesConcurrentlyToTheirPositions() throws IOException {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        fileRepository = new FileRepository(restTemplate, URL);
+        expectRange(8, 9, "89");
+        expectRange(0, 3, "0123");
+        expectRange(4, 7, "4567");
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+
+        ResponseEntity<Path> response = fileRepository.downloadTo(FILE_UUID, null, target, parallelSettings(4));
+
+        assertThat(response.getHeaders().getContentLength(), is(equalTo(10L)));
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("0123456789")));
+        server.verify();
+    }
+
+    @Test
+    public void downloadsRangesOnRepositoryExecutorByDefault() throws IOException {
+        AtomicInteger executions = new AtomicInteger();
+        fileRepository.setExecutor(runnable -> {
+            executions.incrementAndGet();
+            runnable.run();
+        });
+        expectRange(0, 3, "0123");
+        expectRange(4, 7, "4567");
+        expectRange(8, 9, "89");
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+        ParallelDownloadSettings settings = parallelSettings(4);
+        settings.setExecutor(null);
+
+        fileRepository.downloadTo(FILE_UUID, null, target, settings);
+
+        assertThat(executions.get(), is(equalTo(2)));
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("0123456789")));
+    }
+
+    @Test
+    public void fallsBackToSingleStreamWhenServerIgnoresRange() throws IOException {
+        server.expect(requestTo(FILE_URL))
+                .andExpect(header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andRespond(withStatus(HttpStatus.OK).body("0123456789"));
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+
+        fileRepository.downloadTo(FILE_UUID, null, target, parallelSettings(4));
+
+        assertThat(new String(Files.readAllBytes(target), StandardCharsets.UTF_8), is(equalTo("0123456789")));
+        server.verify();
+    }
+
+    @Test
+    public void uploadsFileWithKnownContentLengthAndReportsProgress() throws IOException {
+        Path file = temporaryFolder.newFile("report.pdf").toPath();
+        Files.write(file, "file content".getBytes(StandardCharsets.UTF_8));
+        UUID infoSystemUuid = UUID.randomUUID();
+        UUID uploadedUuid = UUID.randomUUID();
+        List<Long> progress = new ArrayList<>();
+
+        server.expect(requestTo(URL + "/file?infoSystemUuid=" + infoSystemUuid))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(content().string(allOf(
+                        containsString("Content-Disposition: form-data; name=\"file\"; filename=\"report.pdf\""),
+                        containsString("Content-Type: application/pdf\r\n\r\nfile content\r\n--"))))
+                .andExpect(request -> assertThat(request.getHeaders().getContentLength(),
+                                                 is(equalTo((long) ((MockClientHttpRequest) request)
+                                                         .getBodyAsBytes().length))))
+                .andRespond(withSuccess(uploadedUuid.toString(), MediaType.TEXT_PLAIN));
+
+        UUID uuid = fileRepository.upload(file, infoSystemUuid, "application/pdf",
+                                          (transferred, total) -> progress.add(transferred));
+
+        assertThat(uuid, is(equalTo(uploadedUuid)));
+        assertThat(progress, contains(12L));
+        server.verify();
+    }
+
+    @Test
+    public void removesLineBreaksAndQuotesFromUploadedFileName() {
+        server.expect(requestTo(URL + "/file"))
+                .andExpect(content().string(containsString("filename=\"a\\bX-Injected: 1\"")))
+                .andRespond(withSuccess(UUID.randomUUID().toString(), MediaType.TEXT_PLAIN));
+
+        fileRepository.upload(new ByteArrayInputStream(new byte[]{1}), null, "a\\\"b\r\nX-Injected: 1", "text/plain");
+
+        server.verify();
+    }
+
+    @Test
+    public void streamsUploadWithConfiguredStreamingRequestFactory() throws IOException {
+        FileRepository repository = new FileRepository(new StorageClient(URL));
+        SimpleClientHttpRequestFactory streamingRequestFactory = new SimpleClientHttpRequestFactory();
+        streamingRequestFactory.setBufferRequestBody(false);
+        repository.setStreamingRequestFactory(streamingRequestFactory);
+
+        ClientHttpRequest request = repository.getStreamingRequestFactory().createRequest(URI.create(FILE_URL),
+                                                                                          HttpMethod.POST);
+
+        // Buffering requests of Spring are not public, streaming ones are named so
+        assertThat(request.getClass().getSimpleName(), containsString("Streaming"));
+    }
+
+    @Test
+    public void streamsUploadOfPooledClient() throws IOException {
+        try (StorageClient storageClient = new StorageClient(URL, new HttpTransportSettings())) {
+            FileRepository repository = new FileRepository(storageClient);
+
+            ClientHttpRequest request = repository.getStreamingRequestFactory().createRequest(URI.create(FILE_URL),
+                                                                                              HttpMethod.POST);
+
+            assertThat(request.getClass().getSimpleName(), containsString("Streaming"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsStreamingUploadWithRequestInterceptors() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add((request, body, execution) -> execution.execute(request, body));
+
+        new FileRepository(restTemplate, URL).getStreamingRequestFactory();
+    }
+
+    @Test
+    public void copiesExistingFileResourceInsteadOfUploadingSameContent() throws IOException {
+        Path file = temporaryFolder.newFile("report.pdf").toPath();
+        Files.write(file, "file content".getBytes(StandardCharsets.UTF_8));
+        UUID infoSystemUuid = UUID.randomUUID();
+        UUID otherInfoSystemUuid = UUID.randomUUID();
+        UUID copiedUuid = UUID.randomUUID();
+        fileRepository.setFileHashIndex(new FileHashIndex(temporaryFolder.getRoot().toPath().resolve("files.idx")));
+
+        server.expect(requestTo(URL + "/file?infoSystemUuid=" + infoSystemUuid))
+                .andRespond(withSuccess(FILE_UUID.toString(), MediaType.TEXT_PLAIN));
+        server.expect(requestTo(URL + "/file/createFromExisting?existingFileUuid=" + FILE_UUID
+                                        + "&existingInfoSystemUuid=" + infoSystemUuid
+                                        + "&newInfoSystemUuid=" + otherInfoSystemUuid))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess(copiedUuid.toString(), MediaType.TEXT_PLAIN));
+
+        fileRepository.upload(file, infoSystemUuid, "application/pdf");
+        UUID uuid = fileRepository.uploadDeduplicated(file, otherInfoSystemUuid, "application/pdf");
+
+        assertThat(uuid, is(equalTo(copiedUuid)));
+        server.verify();
+    }
+
+    @Test
+    public void uploadsSameContentUnderOtherFileName() throws IOException {
+        Path file = temporaryFolder.newFile("report.pdf").toPath();
+        Path renamedFile = temporaryFolder.newFile("summary.pdf").toPath();
+        Files.write(file, "file content".getBytes(StandardCharsets.UTF_8));
+        Files.write(renamedFile, "file content".getBytes(StandardCharsets.UTF_8));
+        UUID infoSystemUuid = UUID.randomUUID();
+        UUID uploadedUuid = UUID.randomUUID();
+        FileHashIndex index = new FileHashIndex(temporaryFolder.getRoot().toPath().resolve("files.idx"));
+        fileRepository.setFileHashIndex(index);
+
+        server.expect(requestTo(URL + "/file?infoSystemUuid=" + infoSystemUuid))
+                .andRespond(withSuccess(FILE_UUID.toString(), MediaType.TEXT_PLAIN));
+        server.expect(requestTo(URL + "/file?infoSystemUuid=" + infoSystemUuid))
+                .andExpect(content().string(containsString("filename=\"summary.pdf\"")))
+                .andRespond(withSuccess(uploadedUuid.toString(), MediaType.TEXT_PLAIN));
+
+        fileRepository.upload(file, infoSystemUuid, "application/pdf");
+        UUID uuid = fileRepository.uploadDeduplicated(renamedFile, infoSystemUuid, "application/pdf");
+
+        assertThat(uuid, is(equalTo(uploadedUuid)));
+        assertThat(index.size(), is(equalTo(2)));
+        server.verify();
+    }
+
+    @Test
+    public void uploadsContentAgainWhenIndexedFileResourceIsGone() throws IOException {
+        Path file = temporaryFolder.newFile("report.pdf").toPath();
+        Files.write(file, "file content".getBytes(StandardCharsets.UTF_8));
+        UUID infoSystemUuid = UUID.randomUUID();
+        UUID uploadedUuid = UUID.randomUUID();
+        FileHashIndex index = new FileHashIndex(temporaryFolder.getRoot().toPath().resolve("files.idx"));
+        fileRepository.setFileHashIndex(index);
+        String hash = "b9b63aa305ce774a4204b2bb59293ae89410e5fcef7be228d30125b80ce81109";
+        index.put(hash, FILE_UUID, infoSystemUuid);
+
+        server.expect(requestTo(URL + "/file/createFromExisting?existingFileUuid=" + FILE_UUID
+                                        + "&existingInfoSystemUuid=" + infoSystemUuid
+                                        + "&newInfoSystemUuid=" + infoSystemUuid))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        server.expect(requestTo(URL + "/file?infoSystemUuid=" + infoSystemUuid))
+                .andRespond(withSuccess(uploadedUuid.toString(), MediaType.TEXT_PLAIN));
+
+        UUID uuid = fileRepository.uploadDeduplicated(file, infoSystemUuid, "application/pdf");
+
+        assertThat(uuid, is(equalTo(uploadedUuid)));
+        assertThat(index.get(hash).getFileUuid(), is(equalTo(uploadedUuid)));
+        server.verify();
+    }
+
+    @Test
+    public void uploadsContentAgainWhenCopyResponseIsEmpty() throws IOException {
+        Path file = temporaryFolder.newFile("report.pdf").toPath();
+        Files.write(file, "file content".getBytes(StandardCharsets.UTF_8));
+        UUID infoSystemUuid = UUID.randomUUID();
+        UUID uploadedUuid = UUID.randomUUID();
+        FileHashIndex index = new FileHashIndex(temporaryFolder.getRoot().toPath().resolve("files.idx"));
+        fileRepository.setFileHashIndex(index);
+        index.put("b9b63aa305ce774a4204b2bb59293ae89410e5fcef7be228d30125b80ce81109", FILE_UUID, infoSystemUuid);
+
+        server.expect(requestTo(URL + "/file/createFromExisting?existingFileUuid=" + FILE_UUID
+                                        + "&existingInfoSystemUuid=" + infoSystemUuid
+                                        + "&newInfoSystemUuid=" + infoSystemUuid))
+                .andRespond(withSuccess());
+        server.expect(requestTo(URL + "/file?infoSystemUuid=" + infoSystemUuid))
+                .andRespond(withSuccess(uploadedUuid.toString(), MediaType.TEXT_PLAIN));
+
+        UUID uuid = fileRepository.uploadDeduplicated(file, infoSystemUuid, "application/pdf");
+
+        assertThat(uuid, is(equalTo(uploadedUuid)));
+        server.verify();
+    }
+
+    @Test
+    public void servesRepeatedDownloadFromCache() throws IOException {
+        fileRepository.setDownloadCache(new FileResourceCache(temporaryFolder.getRoot().toPath(), 1024));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        server.expect(ExpectedCount.once(), requestTo(FILE_URL))
+                .andRespond(withStatus(HttpStatus.OK).body("hello world").headers(headers));
+
+        fileRepository.download(FILE_UUID);
+        ResponseEntity response = fileRepository.download(FILE_UUID);
+
+        assertThat(response.getHeaders().getContentType(), is(equalTo(MediaType.TEXT_PLAIN)));
+        assertThat(StreamUtils.copyToString(((InputStreamResource) response.getBody()).getInputStream(),
+                                            StandardCharsets.UTF_8), is(equalTo("hello world")));
+        server.verify();
+    }
+
+    @Test
+    public void copiesFileResourcesToNewInfoSystemReportingFailuresPerItem() {
+        UUID infoSystemUuid = UUID.randomUUID();
+        UUID newInfoSystemUuid = UUID.randomUUID();
+        UUID copiedUuid = UUID.randomUUID();
+        FileResourceReference copied = new FileResourceReference(FILE_UUID, infoSystemUuid);
+        FileResourceReference missing = new FileResourceReference(UUID.randomUUID(), infoSystemUuid);
+        fileRepository.setExecutor(Runnable::run);
+
+        server.expect(requestTo(createFromExistingUrl(copied, newInfoSystemUuid)))
+                .andRespond(withSuccess(copiedUuid.toString(), MediaType.TEXT_PLAIN));
+        server.expect(requestTo(createFromExistingUrl(missing, newInfoSystemUuid)))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        BulkOperationResult<FileResourceReference, UUID> result = fileRepository.createFileResourcesFromExisting(
+                Arrays.asList(copied, missing), newInfoSystemUuid);
+
+        assertThat(result.isSuccessful(), is(false));
+        assertThat(result.getSucceeded(), hasEntry(copied, copiedUuid));
+        assertThat(result.getFailed().keySet(), contains(missing));
+        server.verify();
+    }
+
+    @Test
+    public void reportsEmptyAndMalformedCopyResponsesAsFailures() {
+        UUID infoSystemUuid = UUID.randomUUID();
+        UUID newInfoSystemUuid = UUID.randomUUID();
+        FileResourceReference empty = new FileResourceReference(FILE_UUID, infoSystemUuid);
+        FileResourceReference malformed = new FileResourceReference(UUID.randomUUID(), infoSystemUuid);
+        fileRepository.setExecutor(Runnable::run);
+
+        server.expect(requestTo(createFromExistingUrl(empty, newInfoSystemUuid)))
+                .andRespond(withSuccess());
+        server.expect(requestTo(createFromExistingUrl(malformed, newInfoSystemUuid)))
+                .andRespond(withSuccess("<html>", MediaType.TEXT_PLAIN));
+
+        BulkOperationResult<FileResourceReference, UUID> result = fileRepository.createFileResourcesFromExisting(
+                Arrays.asList(empty, malformed), newInfoSystemUuid);
+
+        assertThat(result.getSucceeded().isEmpty(), is(true));
+        assertThat(result.getFailed().get(empty), is(instanceOf(IllegalStateException.class)));
+        assertThat(result.getFailed().get(empty).getMessage(), containsString("Empty response"));
+        assertThat(result.getFailed().get(malformed), is(instanceOf(IllegalStateException.class)));
+        assertThat(result.getFailed().get(malformed).getMessage(), containsString("<html>"));
+        server.verify();
+    }
+
+    @Test
+    public void returnsStatusOfFailedResponseWithoutCreatingTarget() throws IOException {
+        server.expect(requestTo(FILE_URL)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+        Path target = temporaryFolder.getRoot().toPath().resolve("file.txt");
+
+        ResponseEntity<Path> response = fileRepository.downloadTo(FILE_UUID, null, target);
+
+        assertThat(response.getStatusCode(), is(equalTo(HttpStatus.NOT_FOUND)));
+        assertThat(Files.exists(target), is(false));
+    }
+
+    private static String createFromExistingUrl(FileResourceReference existing, UUID newInfoSystemUuid) {
+        return URL + "/file/createFromExisting?existingFileUuid=" + existing.getFileUuid()
+                + "&existingInfoSystemUuid=" + existing.getInfoSystemUuid()
+                + "&newInfoSystemUuid=" + newInfoSystemUuid;
+    }
+
+    private void expectRange(int first, int last, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + first + "-" + last + "/10");
+        server.expect(requestTo(FILE_URL))
+                .andExpect(header(HttpHeaders.RANGE, "bytes=" + first + "-" + last))
+                .andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).body(body).headers(headers));
+    }
+
+    private static ParallelDownloadSettings parallelSettings(int chunkSize) {
+        ParallelDownloadSettings settings = new ParallelDownloadSettings();
+        settings.setChunkSize(chunkSize);
+        settings.setConcurrency(2);
+        settings.setExecutor(Runnable::run);
+        return settings;
+    }
+
+}
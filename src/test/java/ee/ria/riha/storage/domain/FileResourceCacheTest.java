@@ -0,0 +1,104 @@
+package ee.ria.riha.storage.domain;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FileResourceCacheTest {
+
+    private static final UUID INFO_SYSTEM_UUID = UUID.fromString("0d7f0c1e-46e3-4a5f-a3f2-9f6a2b8d7c11");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = temporaryFolder.getRoot().toPath().resolve("cache");
+    }
+
+    @Test
+    public void servesStoredContentWithOriginalHeaders() throws IOException {
+        FileResourceCache cache = new FileResourceCache(directory, 100);
+        UUID fileUuid = UUID.randomUUID();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.pdf\"");
+        cache.put(fileUuid, INFO_SYSTEM_UUID, write(cache, "content"), headers);
+
+        ResponseEntity<InputStreamResource> response = cache.get(fileUuid, null);
+
+        assertThat(read(response), is(equalTo("content")));
+        assertThat(response.getHeaders().getContentType(), is(equalTo(MediaType.APPLICATION_PDF)));
+        assertThat(response.getHeaders().getContentLength(), is(equalTo(7L)));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION),
+                   is(equalTo("attachment; filename=\"report.pdf\"")));
+    }
+
+    @Test
+    public void doesNotMatchContentDownloadedForOtherInfoSystem() throws IOException {
+        FileResourceCache cache = new FileResourceCache(directory, 100);
+        UUID fileUuid = UUID.randomUUID();
+        cache.put(fileUuid, INFO_SYSTEM_UUID, write(cache, "content"), new HttpHeaders());
+
+        assertThat(cache.get(fileUuid, INFO_SYSTEM_UUID), is(notNullValue()));
+        assertThat(cache.get(fileUuid, UUID.randomUUID()), is(nullValue()));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedContent() throws IOException {
+        FileResourceCache cache = new FileResourceCache(directory, 10);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        cache.put(first, null, write(cache, "1234"), new HttpHeaders());
+        cache.put(second, null, write(cache, "1234"), new HttpHeaders());
+        read(cache.get(first, null));
+
+        cache.put(third, null, write(cache, "1234"), new HttpHeaders());
+
+        assertThat(cache.get(second, null), is(nullValue()));
+        assertThat(cache.get(first, null), is(notNullValue()));
+        assertThat(cache.get(third, null), is(notNullValue()));
+        assertThat(cache.getSize(), is(equalTo(8L)));
+    }
+
+    @Test
+    public void restoresCachedContentAndRemovesLeftovers() throws IOException {
+        UUID fileUuid = UUID.randomUUID();
+        FileResourceCache cache = new FileResourceCache(directory, 100);
+        cache.put(fileUuid, null, write(cache, "content"), new HttpHeaders());
+        Path leftover = write(cache, "partial");
+
+        FileResourceCache reopened = new FileResourceCache(directory, 100);
+
+        assertThat(read(reopened.get(fileUuid, null)), is(equalTo("content")));
+        assertThat(reopened.getSize(), is(equalTo(7L)));
+        assertThat(Files.exists(leftover), is(false));
+    }
+
+    private static Path write(FileResourceCache cache, String content) throws IOException {
+        return Files.write(cache.createTemporaryFile(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(ResponseEntity<InputStreamResource> response) throws IOException {
+        return StreamUtils.copyToString(response.getBody().getInputStream(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,68 @@
+package ee.ria.riha.storage.domain;
+
+import ee.ria.riha.storage.util.Filterable;
+import ee.ria.riha.storage.util.Pageable;
+import ee.ria.riha.storage.util.PagedResponse;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StorageRepositoryTest {
+
+    private final StorageRepository<Long, String> repository = new NamesRepository();
+
+    @Test
+    public void retrievesResourcesOneByOneByDefault() {
+        Map<Long, String> found = repository.getAll(Arrays.asList(2L, 1L));
+
+        assertThat(found.keySet(), contains(2L, 1L));
+        assertThat(found, hasEntry(2L, "name-2"));
+    }
+
+    @Test
+    public void runsSynchronousVariantAsynchronouslyByDefault() {
+        assertThat(repository.getAsync(3L).join(), is(equalTo("name-3")));
+        assertThat(repository.findAsync(null).join(), contains("name-1"));
+    }
+
+    /**
+     * Implements only methods that are not defaulted.
+     */
+    private static class NamesRepository implements StorageRepository<Long, String> {
+
+        @Override
+        public PagedResponse<String> list(Pageable pageable, Filterable filterable) {
+            return new PagedResponse<>(pageable);
+        }
+
+        @Override
+        public String get(Long id) {
+            return "name-" + id;
+        }
+
+        @Override
+        public List<String> find(Filterable filterable) {
+            return Collections.singletonList("name-1");
+        }
+
+        @Override
+        public List<Long> add(String entity) {
+            return Collections.singletonList(1L);
+        }
+
+        @Override
+        public void update(Long id, String entity) {
+        }
+
+        @Override
+        public void remove(Long id) {
+        }
+    }
+
+}
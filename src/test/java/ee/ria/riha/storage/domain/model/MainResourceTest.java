@@ -0,0 +1,66 @@
+package ee.ria.riha.storage.domain.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class MainResourceTest {
+
+    private static final String JSON = "{\"main_resource_id\":7,"
+            + "\"json_content\":{\"name\":\"Süsteem\",\"tags\":[1,2.5,true,null]}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void keepsJsonContentUnparsedUntilAccessed() throws Exception {
+        MainResource mainResource = objectMapper.readValue(JSON, MainResource.class);
+
+        assertThat(mainResource.getRawJson_content().isParsed(), is(false));
+        assertThat(mainResource.getJson_content().get("name").asText(), is(equalTo("Süsteem")));
+        assertThat(mainResource.getRawJson_content().isParsed(), is(true));
+    }
+
+    @Test
+    public void writesUnparsedJsonContentThrough() throws Exception {
+        MainResource mainResource = objectMapper.readValue(JSON, MainResource.class);
+
+        String json = objectMapper.writeValueAsString(mainResource);
+        byte[] bytes = objectMapper.writeValueAsBytes(mainResource);
+
+        assertThat(json, containsString("\"json_content\":{\"name\":\"Süsteem\",\"tags\":[1,2.5,true,null]}"));
+        assertThat(objectMapper.readTree(bytes), is(equalTo(objectMapper.readTree(json))));
+        assertThat(mainResource.getRawJson_content().isParsed(), is(false));
+    }
+
+    @Test
+    public void extractsJsonContentValuesWithoutParsingDocument() throws Exception {
+        MainResource mainResource = objectMapper.readValue(JSON, MainResource.class);
+
+        assertThat(mainResource.getJson_content("/tags/1").asDouble(), is(equalTo(2.5)));
+        assertThat(mainResource.extractJson_content("/name", "/owner/code").get("/owner/code").isMissingNode(),
+                   is(true));
+        assertThat(mainResource.getRawJson_content().isParsed(), is(false));
+    }
+
+    @Test
+    public void writesChangesOfAccessedTree() throws Exception {
+        MainResource mainResource = objectMapper.readValue(JSON, MainResource.class);
+        ((ObjectNode) mainResource.getJson_content()).put("name", "changed");
+
+        assertThat(objectMapper.writeValueAsString(mainResource), containsString("\"name\":\"changed\""));
+    }
+
+    @Test
+    public void acceptsJsonContentTree() throws Exception {
+        MainResource mainResource = new MainResource();
+        mainResource.setJson_content(JsonNodeFactory.instance.objectNode().put("uuid", "abc"));
+
+        assertThat(objectMapper.writeValueAsString(mainResource), containsString("\"json_content\":{\"uuid\":\"abc\"}"));
+        assertThat(objectMapper.writeValueAsString(new MainResource()), containsString("\"json_content\":null"));
+    }
+
+}
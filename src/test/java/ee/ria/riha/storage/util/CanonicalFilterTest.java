@@ -0,0 +1,38 @@
+package ee.ria.riha.storage.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CanonicalFilterTest {
+
+    @Test
+    public void ordersFilterDefinitions() {
+        assertThat(CanonicalFilter.canonicalFilter("status,=,OPEN,infosystem_uuid,=,abc"),
+                   is(equalTo(CanonicalFilter.canonicalFilter("infosystem_uuid,=,abc,status,=,OPEN"))));
+    }
+
+    @Test
+    public void keepsMalformedFilterIntact() {
+        assertThat(CanonicalFilter.canonicalFilter("status,=,OPEN,type"), is(equalTo("status,=,OPEN,type")));
+    }
+
+    @Test
+    public void ordersAndDeduplicatesFields() {
+        assertThat(CanonicalFilter.canonicalFields(" title, comment_id,title"), is(equalTo("comment_id,title")));
+    }
+
+    @Test
+    public void keepsSortOrder() {
+        assertThat(CanonicalFilter.of(new FilterRequest(null, "-creation_date,title", null)),
+                   is(not(equalTo(CanonicalFilter.of(new FilterRequest(null, "title,-creation_date", null))))));
+    }
+
+    @Test
+    public void producesEqualKeysForEquivalentFilterables() {
+        assertThat(CanonicalFilter.of(new FilterRequest("a,=,1,b,=,2", "-a", "x,y")),
+                   is(equalTo(CanonicalFilter.of(new FilterRequest("b,=,2,a,=,1", "-a", "y,x")))));
+    }
+
+}
@@ -0,0 +1,75 @@
+package ee.ria.riha.storage.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JsonPointerSetTest {
+
+    private static final String DOCUMENT = "{\"uuid\":\"a1\",\"short_name\":\"sys\","
+            + "\"owner\":{\"code\":\"7001\",\"name\":\"RIA\"},"
+            + "\"stored_data\":[{\"name\":\"first\"},{\"name\":\"second\"}],"
+            + "\"a/b\":{\"c~d\":1}}";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    public void extractsValuesWithStreamingParser() throws Exception {
+        JsonPointerSet pointers = JsonPointerSet.compile(
+                Arrays.asList("/owner/code", "/uuid", "/stored_data/1/name", "/a~1b/c~0d", "/missing"));
+
+        Map<String, JsonNode> values = extract(pointers);
+
+        assertThat(values.keySet(), contains("/owner/code", "/uuid", "/stored_data/1/name", "/a~1b/c~0d", "/missing"));
+        assertThat(values.get("/owner/code").asText(), is(equalTo("7001")));
+        assertThat(values.get("/uuid").asText(), is(equalTo("a1")));
+        assertThat(values.get("/stored_data/1/name").asText(), is(equalTo("second")));
+        assertThat(values.get("/a~1b/c~0d").asInt(), is(equalTo(1)));
+        assertThat(values.get("/missing").isMissingNode(), is(true));
+    }
+
+    @Test
+    public void extractsNestedPointersOfExtractedSubtree() throws Exception {
+        Map<String, JsonNode> values = extract(JsonPointerSet.compile(Arrays.asList("/owner", "/owner/name")));
+
+        assertThat(values.get("/owner").get("code").asText(), is(equalTo("7001")));
+        assertThat(values.get("/owner/name").asText(), is(equalTo("RIA")));
+    }
+
+    @Test
+    public void stopsParsingWhenAllValuesAreFound() throws Exception {
+        JsonPointerSet pointers = JsonPointerSet.compile(Arrays.asList("/uuid", "/short_name"));
+
+        try (JsonParser parser = jsonFactory.createParser(DOCUMENT + " this is not JSON")) {
+            assertThat(pointers.extract(parser).get("/short_name").asText(), is(equalTo("sys")));
+        }
+    }
+
+    @Test
+    public void givesSameResultsForParsedTree() throws Exception {
+        JsonPointerSet pointers = JsonPointerSet.compile(Arrays.asList("/owner/code", "/stored_data/0/name"));
+
+        assertThat(pointers.extract(new ObjectMapper().readTree(DOCUMENT)), is(equalTo(extract(pointers))));
+    }
+
+    @Test
+    public void reusesCompiledPointerSets() {
+        assertThat(JsonPointerSet.compile(Arrays.asList("/uuid", "/owner/code")),
+                   is(sameInstance(JsonPointerSet.compile(Arrays.asList("/uuid", "/owner/code")))));
+    }
+
+    private Map<String, JsonNode> extract(JsonPointerSet pointers) throws Exception {
+        try (JsonParser parser = jsonFactory.createParser(DOCUMENT)) {
+            return pointers.extract(parser);
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package ee.ria.riha.storage.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StringPoolTest {
+
+    @Test
+    public void returnsSameInstanceForEqualStrings() {
+        StringPool pool = new StringPool(10);
+
+        String first = pool.intern(new String("ISSUE"));
+        String second = pool.intern(new String("ISSUE"));
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(pool.intern(null), is(nullValue()));
+    }
+
+    @Test
+    public void doesNotGrowBeyondMaximumSize() {
+        StringPool pool = new StringPool(1);
+        pool.intern("OPEN");
+
+        String value = new String("CLOSED");
+
+        assertThat(pool.intern(value), is(sameInstance(value)));
+        assertThat(pool.size(), is(equalTo(1)));
+    }
+
+}